@@ -31,6 +31,11 @@ public enum Alliance {
         public int getOppositeDirection() {
             return 1;
         }
+
+        @Override
+        public Alliance getOpponent() {
+            return BLACK;
+        }
         @Override
         public boolean isPawnPromotionSquare(final int position) {
             return BoardUtils.EIGHTH_RANK[position];
@@ -62,6 +67,11 @@ public enum Alliance {
             return -1;
         }
 
+        @Override
+        public Alliance getOpponent() {
+            return WHITE;
+        }
+
         @Override
         public boolean isPawnPromotionSquare(final int position) {
             return BoardUtils.FIRST_RANK[position];
@@ -72,6 +82,8 @@ public enum Alliance {
 
     public abstract int getOppositeDirection();
 
+    public abstract Alliance getOpponent();
+
     public abstract boolean isWhite();
 
     public abstract boolean isBlack();
@@ -0,0 +1,144 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+
+/**
+ * Precomputed per-square target sets for the pieces that do not slide. Every
+ * table is built once when the class loads, so knight, king and pawn move
+ * generation is a lookup followed by a mask with the friendly or enemy
+ * occupancy.
+ */
+public final class AttackTables {
+
+    private static final int[][] KNIGHT_OFFSETS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] KING_OFFSETS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+
+    private static final long[] KNIGHT_ATTACKS = initLeaperAttacks(KNIGHT_OFFSETS);
+    private static final long[] KING_ATTACKS = initLeaperAttacks(KING_OFFSETS);
+
+    private static final long[][] PAWN_ATTACKS = {
+        initPawnAttacks(Alliance.WHITE), initPawnAttacks(Alliance.BLACK)};
+    private static final long[][] PAWN_PUSHES = {
+        initPawnPushes(Alliance.WHITE, 1), initPawnPushes(Alliance.BLACK, 1)};
+    private static final long[][] PAWN_JUMPS = {
+        initPawnPushes(Alliance.WHITE, 2), initPawnPushes(Alliance.BLACK, 2)};
+
+    private static final long[][] BETWEEN = new long[BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+    private static final long[][] LINES = new long[BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+
+    static {
+        initLines();
+    }
+
+    private static final long[] PROMOTION_SQUARES = {BitBoardUtils.EIGHTH_RANK, BitBoardUtils.FIRST_RANK};
+
+    private AttackTables() {
+        throw new RuntimeException("You cannot instanciate me!");
+    }
+
+    public static long knightAttacks(final int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(final int square) {
+        return KING_ATTACKS[square];
+    }
+
+    public static long pawnAttacks(final Alliance alliance, final int square) {
+        return PAWN_ATTACKS[alliance.ordinal()][square];
+    }
+
+    public static long pawnPushes(final Alliance alliance, final int square) {
+        return PAWN_PUSHES[alliance.ordinal()][square];
+    }
+
+    /**
+     * The double step target of a pawn standing on its starting rank, or an
+     * empty set for every other square.
+     */
+    public static long pawnJumps(final Alliance alliance, final int square) {
+        return PAWN_JUMPS[alliance.ordinal()][square];
+    }
+
+    public static long promotionSquares(final Alliance alliance) {
+        return PROMOTION_SQUARES[alliance.ordinal()];
+    }
+
+    /**
+     * The squares strictly between two squares on a shared rank, file or
+     * diagonal, or an empty set when they do not share one.
+     */
+    public static long between(final int from, final int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * The whole rank, file or diagonal running through both squares, edge to
+     * edge, or an empty set when they do not share one.
+     */
+    public static long line(final int from, final int to) {
+        return LINES[from][to];
+    }
+
+    private static long[] initLeaperAttacks(final int[][] offsets) {
+        final long[] attacks = new long[BoardUtils.NUM_TILES];
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            for (final int[] offset : offsets) {
+                attacks[square] |= targetBit(square, offset[0], offset[1]);
+            }
+        }
+        return attacks;
+    }
+
+    private static long[] initPawnAttacks(final Alliance alliance) {
+        final long[] attacks = new long[BoardUtils.NUM_TILES];
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            attacks[square] = targetBit(square, alliance.getDirection(), -1)
+                    | targetBit(square, alliance.getDirection(), 1);
+        }
+        return attacks;
+    }
+
+    private static long[] initPawnPushes(final Alliance alliance, final int distance) {
+        final long startRank = alliance.isWhite() ? BitBoardUtils.SECOND_RANK : BitBoardUtils.SEVENTH_RANK;
+        final long[] pushes = new long[BoardUtils.NUM_TILES];
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            if (distance == 1 || BitBoardUtils.isSet(startRank, square)) {
+                pushes[square] = targetBit(square, alliance.getDirection() * distance, 0);
+            }
+        }
+        return pushes;
+    }
+
+    private static void initLines() {
+        final int[][] directions = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+        for (int from = 0; from < BoardUtils.NUM_TILES; from++) {
+            for (final int[] direction : directions) {
+                long ray = 0L;
+                long backwardRay = 0L;
+                for (int distance = 1; targetBit(from, -direction[0] * distance, -direction[1] * distance) != 0; distance++) {
+                    backwardRay |= targetBit(from, -direction[0] * distance, -direction[1] * distance);
+                }
+                for (int distance = 1; targetBit(from, direction[0] * distance, direction[1] * distance) != 0; distance++) {
+                    final long bit = targetBit(from, direction[0] * distance, direction[1] * distance);
+                    final int to = BitBoardUtils.firstSquare(bit);
+                    BETWEEN[from][to] = ray;
+                    ray |= bit;
+                }
+                final long line = BitBoardUtils.squareBit(from) | ray | backwardRay;
+                for (long squares = ray; squares != 0; squares = BitBoardUtils.clearFirstSquare(squares)) {
+                    LINES[from][BitBoardUtils.firstSquare(squares)] = line;
+                }
+            }
+        }
+    }
+
+    private static long targetBit(final int square, final int rowOffset, final int columnOffset) {
+        final int row = BitBoardUtils.getRow(square) + rowOffset;
+        final int column = BitBoardUtils.getColumn(square) + columnOffset;
+        if (row < 0 || row >= BoardUtils.NUM_TILES_PER_ROW || column < 0 || column >= BoardUtils.NUM_TILES_PER_ROW) {
+            return 0L;
+        }
+        return BitBoardUtils.squareBit(row * BoardUtils.NUM_TILES_PER_ROW + column);
+    }
+}
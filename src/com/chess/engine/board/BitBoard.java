@@ -0,0 +1,114 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Bitboard view of a position: one mask per piece type and alliance plus the
+ * occupancy of each side. An immutable {@link Board} fills one in while it is
+ * built and never changes it afterwards; a {@link SearchBoard} owns its own and
+ * updates it in place as it makes and unmakes moves.
+ */
+public final class BitBoard {
+
+    public static final int NUM_PIECE_INDEXES = 12;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private final long[] pieceBitBoards;
+    private final long[] allianceBitBoards;
+
+    BitBoard() {
+        this.pieceBitBoards = new long[NUM_PIECE_INDEXES];
+        this.allianceBitBoards = new long[2];
+    }
+
+    public static int index(final Alliance alliance, final PieceType pieceType) {
+        return alliance.ordinal() * PIECE_TYPES.length + pieceType.ordinal();
+    }
+
+    public static PieceType pieceTypeOf(final int index) {
+        return PIECE_TYPES[index % PIECE_TYPES.length];
+    }
+
+    public static Alliance allianceOf(final int index) {
+        return index < PIECE_TYPES.length ? Alliance.WHITE : Alliance.BLACK;
+    }
+
+    void setPiece(final Piece piece) {
+        addPiece(index(piece.getPieceAlliance(), piece.getPieceType()), piece.getPiecePosition());
+    }
+
+    void addPiece(final int index, final int square) {
+        final long bit = BitBoardUtils.squareBit(square);
+        this.pieceBitBoards[index] |= bit;
+        this.allianceBitBoards[index / PIECE_TYPES.length] |= bit;
+    }
+
+    void removePiece(final int index, final int square) {
+        final long bit = ~BitBoardUtils.squareBit(square);
+        this.pieceBitBoards[index] &= bit;
+        this.allianceBitBoards[index / PIECE_TYPES.length] &= bit;
+    }
+
+    public long getPieces(final int index) {
+        return this.pieceBitBoards[index];
+    }
+
+    public long getPieces(final Alliance alliance, final PieceType pieceType) {
+        return this.pieceBitBoards[index(alliance, pieceType)];
+    }
+
+    public long getOccupancy(final Alliance alliance) {
+        return this.allianceBitBoards[alliance.ordinal()];
+    }
+
+    public long getOccupied() {
+        return this.allianceBitBoards[0] | this.allianceBitBoards[1];
+    }
+
+    public long getEmpty() {
+        return ~getOccupied();
+    }
+
+    /**
+     * Whether any piece of the attacking side attacks the square. Works
+     * backward from the square: a pawn, knight, king, diagonal or straight
+     * attack pattern placed on it is intersected with the attacker's pieces
+     * of that type.
+     */
+    public boolean isSquareAttacked(final int square, final Alliance attacker) {
+        final long occupied = getOccupied();
+        final long queens = getPieces(attacker, PieceType.QUEEN);
+        return (AttackTables.pawnAttacks(attacker.getOpponent(), square) & getPieces(attacker, PieceType.PAWN)) != 0
+                || (AttackTables.knightAttacks(square) & getPieces(attacker, PieceType.KNIGHT)) != 0
+                || (AttackTables.kingAttacks(square) & getPieces(attacker, PieceType.KING)) != 0
+                || (MagicBitBoards.bishopAttacks(square, occupied) & (getPieces(attacker, PieceType.BISHOP) | queens)) != 0
+                || (MagicBitBoards.rookAttacks(square, occupied) & (getPieces(attacker, PieceType.ROOK) | queens)) != 0;
+    }
+
+    /**
+     * The squares of every piece of the attacking side that attacks the
+     * given square.
+     */
+    public long getAttackers(final int square, final Alliance attacker) {
+        return getAttackers(square, attacker, getOccupied());
+    }
+
+    /**
+     * The attackers of a square if only the given squares were occupied.
+     * Pieces outside the occupancy are treated as removed, which lets move
+     * generation ask what would attack a square after a move without making
+     * it.
+     */
+    public long getAttackers(final int square, final Alliance attacker, final long occupied) {
+        final long queens = getPieces(attacker, PieceType.QUEEN);
+        return ((AttackTables.pawnAttacks(attacker.getOpponent(), square) & getPieces(attacker, PieceType.PAWN))
+                | (AttackTables.knightAttacks(square) & getPieces(attacker, PieceType.KNIGHT))
+                | (AttackTables.kingAttacks(square) & getPieces(attacker, PieceType.KING))
+                | (MagicBitBoards.bishopAttacks(square, occupied) & (getPieces(attacker, PieceType.BISHOP) | queens))
+                | (MagicBitBoards.rookAttacks(square, occupied) & (getPieces(attacker, PieceType.ROOK) | queens)))
+                & occupied;
+    }
+}
@@ -0,0 +1,54 @@
+package com.chess.engine.board;
+
+/**
+ * Static helpers for 64-bit square sets. Bit {@code n} of a bitboard is tile
+ * coordinate {@code n}, so bit 0 is a8 and bit 63 is h1, matching
+ * {@link BoardUtils#ALGEBREIC_NOTATION}.
+ */
+public final class BitBoardUtils {
+
+    public static final long EMPTY = 0L;
+    public static final long ALL_SQUARES = ~0L;
+
+    public static final long FIRST_COLUMN = 0x0101010101010101L;
+    public static final long SECOND_COLUMN = FIRST_COLUMN << 1;
+    public static final long SEVENTH_COLUMN = FIRST_COLUMN << 6;
+    public static final long EIGTH_COLUMN = FIRST_COLUMN << 7;
+
+    public static final long EIGHTH_RANK = 0xFFL;
+    public static final long SEVENTH_RANK = EIGHTH_RANK << 8;
+    public static final long SECOND_RANK = EIGHTH_RANK << 48;
+    public static final long FIRST_RANK = EIGHTH_RANK << 56;
+
+    private BitBoardUtils() {
+        throw new RuntimeException("You cannot instanciate me!");
+    }
+
+    public static long squareBit(final int square) {
+        return 1L << square;
+    }
+
+    public static boolean isSet(final long bitBoard, final int square) {
+        return (bitBoard & (1L << square)) != 0;
+    }
+
+    public static int firstSquare(final long bitBoard) {
+        return Long.numberOfTrailingZeros(bitBoard);
+    }
+
+    public static long clearFirstSquare(final long bitBoard) {
+        return bitBoard & (bitBoard - 1);
+    }
+
+    public static int count(final long bitBoard) {
+        return Long.bitCount(bitBoard);
+    }
+
+    public static int getColumn(final int square) {
+        return square & 7;
+    }
+
+    public static int getRow(final int square) {
+        return square >>> 3;
+    }
+}
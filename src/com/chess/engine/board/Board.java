@@ -6,6 +6,7 @@ import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Knight;
 import com.chess.engine.pieces.Pawn;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.PieceUtils;
 import com.chess.engine.pieces.Queen;
 import com.chess.engine.pieces.Rook;
 import com.chess.engine.player.BlackPlayer;
@@ -14,12 +15,12 @@ import com.chess.engine.player.WhitePlayer;
 import java.util.Collections;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class Board {
 
+    private final Piece[] boardPieces;
+    private final BitBoard bitBoard;
     private final List<chessTile> gameBoard;
     private final Collection<Piece> whitePieces;
     private final Collection<Piece> blackPieces;
@@ -29,18 +30,27 @@ public class Board {
     private final Player currentPlayer;
 
     private final Pawn enPassantPawn;
+    private final int castlingRights;
+    private final long pieceKey;
+    private final long zobristKey;
 
     private Board(final Builder builder) {
-        this.gameBoard = createGameBoard(builder);
-        this.whitePieces = calculateActivePieces(this.gameBoard, Alliance.WHITE);
-        this.blackPieces = calculateActivePieces(this.gameBoard, Alliance.BLACK);
+        this.boardPieces = builder.takeBoardConfig();
+        this.bitBoard = createBitBoard(this.boardPieces);
+        this.gameBoard = createGameBoard(this.boardPieces);
+        this.whitePieces = calculateActivePieces(Alliance.WHITE);
+        this.blackPieces = calculateActivePieces(Alliance.BLACK);
         this.enPassantPawn = builder.enPassantPawn;
-
-        final Collection<Move> whiteStandardLegalMoves = calculateLegalMoves(this.whitePieces);
-        final Collection<Move> blackStandardLegalMoves = calculateLegalMoves(this.blackPieces);
-
-        this.whitePlayer = new WhitePlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
-        this.blackPlayer = new BlackPlayer(this, blackStandardLegalMoves, whiteStandardLegalMoves);
+        this.castlingRights = CastlingRights.calculate(this);
+        this.pieceKey = builder.pieceKey;
+        this.zobristKey = this.pieceKey
+                ^ Zobrist.castlingKey(this.castlingRights)
+                ^ Zobrist.enPassantKey(this.bitBoard, builder.nextMoveMaker, getEnPassantSquare())
+                ^ Zobrist.sideToMoveKey(builder.nextMoveMaker);
+
+        // the players generate their moves and check status on first use
+        this.whitePlayer = new WhitePlayer(this);
+        this.blackPlayer = new BlackPlayer(this);
         this.currentPlayer = builder.nextMoveMaker.choosePlayer(this.whitePlayer, this.blackPlayer);
     }
 
@@ -69,10 +79,32 @@ public class Board {
         return this.currentPlayer;
     }
 
-    public Piece getEnPassantPawn() {
+    public Pawn getEnPassantPawn() {
         return this.enPassantPawn;
     }
 
+    /**
+     * The square behind the pawn that just made a two-square jump, where an
+     * en passant capture would land, or -1 when there is none.
+     */
+    public int getEnPassantSquare() {
+        return this.enPassantPawn != null
+                ? this.enPassantPawn.getPiecePosition() - (this.enPassantPawn.getPieceAlliance().getDirection() * 8)
+                : -1;
+    }
+
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    /**
+     * The {@link Zobrist} key of the position: piece placement, side to move,
+     * castling rights and a capturable en passant file.
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
     public Collection<Piece> getBlackPieces() {
         return this.blackPieces;
     }
@@ -81,38 +113,58 @@ public class Board {
         return this.whitePieces;
     }
 
-    private Collection<Move> calculateLegalMoves(final Collection<Piece> pieces) {
+    private Collection<Piece> calculateActivePieces(final Alliance alliance) {
+        final Piece[] activePieces = new Piece[BitBoardUtils.count(this.bitBoard.getOccupancy(alliance))];
+        long occupancy = this.bitBoard.getOccupancy(alliance);
+        for (int i = 0; occupancy != 0; i++) {
+            activePieces[i] = this.boardPieces[BitBoardUtils.firstSquare(occupancy)];
+            occupancy = BitBoardUtils.clearFirstSquare(occupancy);
+        }
+        return List.of(activePieces);
+    }
 
-        final List<Move> legalMoves = new ArrayList<>();
+    public chessTile getTile(final int tileCoordinate) {
+        return gameBoard.get(tileCoordinate);
+    }
 
-        for (final Piece piece : pieces) {
-            legalMoves.addAll(piece.calculateLegalMoves(this));
-        }
+    public Piece getPiece(final int tileCoordinate) {
+        return this.boardPieces[tileCoordinate];
+    }
 
-        return List.copyOf(legalMoves);
+    public boolean isTileOccupied(final int tileCoordinate) {
+        return BitBoardUtils.isSet(this.bitBoard.getOccupied(), tileCoordinate);
     }
 
-    private static Collection<Piece> calculateActivePieces(final List<chessTile> gameBoard, final Alliance alliance) {
-        final List<Piece> activePieces = new ArrayList<>();
-        for (final chessTile tile : gameBoard) {
-            if (tile.isTileOccupied()) {
-                final Piece piece = tile.getPiece();
-                if (piece.getPieceAlliance() == alliance) {
-                    activePieces.add(piece);
-                }
-            }
-        }
-        return List.copyOf(activePieces);
+    public BitBoard getBitBoard() {
+        return this.bitBoard;
     }
 
-    public chessTile getTile(final int tileCoordinate) {
-        return gameBoard.get(tileCoordinate);
+    /**
+     * Whether a piece of the given alliance attacks the tile, answered from
+     * the bitboards without generating anyone's moves.
+     */
+    public boolean isSquareAttacked(final int tileCoordinate, final Alliance attacker) {
+        return this.bitBoard.isSquareAttacked(tileCoordinate, attacker);
     }
 
-    private static List<chessTile> createGameBoard(final Builder builder) {
+    public long getAttackers(final int tileCoordinate, final Alliance attacker) {
+        return this.bitBoard.getAttackers(tileCoordinate, attacker);
+    }
+
+    private static BitBoard createBitBoard(final Piece[] pieces) {
+        final BitBoard bitBoard = new BitBoard();
+        for (final Piece piece : pieces) {
+            if (piece != null) {
+                bitBoard.setPiece(piece);
+            }
+        }
+        return bitBoard;
+    }
+
+    private static List<chessTile> createGameBoard(final Piece[] pieces) {
         final chessTile[] tiles = new chessTile[BoardUtils.NUM_TILES];
         for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            tiles[i] = chessTile.createTile(i, builder.boardConfig.get(i));
+            tiles[i] = chessTile.createTile(i, pieces[i]);
         }
         return List.of(tiles);
     }
@@ -170,17 +222,49 @@ public class Board {
 
     public static class Builder {
 
-        Map<Integer, Piece> boardConfig;
+        // one slot per tile; shared with a board until the first change, so
+        // a builder started from a board copies its pieces at most once
+        Piece[] boardConfig;
+        boolean isShared;
         Alliance nextMoveMaker;
         Pawn enPassantPawn;
+        long pieceKey;
 
         public Builder() {
-            this.boardConfig = new HashMap<>();
+            this.boardConfig = new Piece[BoardUtils.NUM_TILES];
+        }
+
+        /**
+         * Starts from the pieces of an existing board, so a move only has to
+         * set and remove the pieces it touches. The side to move and the en
+         * passant pawn are not carried over.
+         */
+        public Builder(final Board board) {
+            this.boardConfig = board.boardPieces;
+            this.isShared = true;
+            this.pieceKey = board.pieceKey;
         }
 
         public Builder setPiece(final Piece piece) {
-            this.boardConfig.put(piece.getPiecePosition(), piece);
+            // boards only hold the canonical instances, see PieceUtils
+            final Piece canonicalPiece = PieceUtils.intern(piece);
+            final int position = canonicalPiece.getPiecePosition();
+            final Piece replacedPiece = this.boardConfig[position];
+            if (replacedPiece != null) {
+                this.pieceKey ^= pieceKey(replacedPiece);
+            }
+            writableBoardConfig()[position] = canonicalPiece;
+            this.pieceKey ^= pieceKey(canonicalPiece);
+            return this;
+        }
 
+        public Builder removePiece(final Piece piece) {
+            final int position = piece.getPiecePosition();
+            final Piece removedPiece = this.boardConfig[position];
+            if (removedPiece != null) {
+                this.pieceKey ^= pieceKey(removedPiece);
+                writableBoardConfig()[position] = null;
+            }
             return this;
         }
 
@@ -194,7 +278,29 @@ public class Board {
         }
 
         public void setEnPassantPawn(Pawn enPassantPawn) {
-            this.enPassantPawn = enPassantPawn;
+            this.enPassantPawn = enPassantPawn != null ? (Pawn) PieceUtils.intern(enPassantPawn) : null;
+        }
+
+        private Piece[] writableBoardConfig() {
+            if (this.isShared) {
+                this.boardConfig = this.boardConfig.clone();
+                this.isShared = false;
+            }
+            return this.boardConfig;
+        }
+
+        /**
+         * Hands the pieces to the board being built. The array is shared from
+         * then on, so changing this builder again copies it first.
+         */
+        Piece[] takeBoardConfig() {
+            this.isShared = true;
+            return this.boardConfig;
+        }
+
+        private static long pieceKey(final Piece piece) {
+            return Zobrist.pieceKey(BitBoard.index(piece.getPieceAlliance(), piece.getPieceType()),
+                    piece.getPiecePosition());
         }
     }
 
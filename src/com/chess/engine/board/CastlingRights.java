@@ -0,0 +1,119 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.Arrays;
+
+/**
+ * Castling rights packed into the low four bits of an int. A {@link Board}
+ * derives them from the first-move flags of its kings and rooks; a
+ * {@link SearchBoard} keeps them up to date with {@link #update}.
+ */
+public final class CastlingRights {
+
+    public static final int NONE = 0;
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+    public static final int ALL = WHITE_KING_SIDE | WHITE_QUEEN_SIDE | BLACK_KING_SIDE | BLACK_QUEEN_SIDE;
+
+    private static final int[] MASKS = initMasks();
+
+    private CastlingRights() {
+        throw new RuntimeException("You cannot instanciate me!");
+    }
+
+    public static int kingSide(final Alliance alliance) {
+        return alliance.isWhite() ? WHITE_KING_SIDE : BLACK_KING_SIDE;
+    }
+
+    public static int queenSide(final Alliance alliance) {
+        return alliance.isWhite() ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE;
+    }
+
+    /**
+     * Whether the side may castle king side right now: it still has the
+     * right, the squares between king and rook are empty, and neither the
+     * king's square nor the two it crosses are attacked.
+     */
+    public static boolean canCastleKingSide(final BitBoard bitBoard, final Alliance alliance, final int castlingRights) {
+        if ((castlingRights & kingSide(alliance)) == 0) {
+            return false;
+        }
+        final int kingSquare = BitBoardUtils.firstSquare(bitBoard.getPieces(alliance, PieceType.KING));
+        final Alliance opponent = alliance.getOpponent();
+        return (bitBoard.getOccupied() & (BitBoardUtils.squareBit(kingSquare + 1) | BitBoardUtils.squareBit(kingSquare + 2))) == 0
+                && !bitBoard.isSquareAttacked(kingSquare, opponent)
+                && !bitBoard.isSquareAttacked(kingSquare + 1, opponent)
+                && !bitBoard.isSquareAttacked(kingSquare + 2, opponent);
+    }
+
+    public static boolean canCastleQueenSide(final BitBoard bitBoard, final Alliance alliance, final int castlingRights) {
+        if ((castlingRights & queenSide(alliance)) == 0) {
+            return false;
+        }
+        final int kingSquare = BitBoardUtils.firstSquare(bitBoard.getPieces(alliance, PieceType.KING));
+        final Alliance opponent = alliance.getOpponent();
+        return (bitBoard.getOccupied() & (BitBoardUtils.squareBit(kingSquare - 1)
+                | BitBoardUtils.squareBit(kingSquare - 2)
+                | BitBoardUtils.squareBit(kingSquare - 3))) == 0
+                && !bitBoard.isSquareAttacked(kingSquare, opponent)
+                && !bitBoard.isSquareAttacked(kingSquare - 1, opponent)
+                && !bitBoard.isSquareAttacked(kingSquare - 2, opponent);
+    }
+
+    /**
+     * The rights that survive when something moves from or to the given
+     * squares: touching a king or rook home square loses the rights tied to
+     * it.
+     */
+    public static int update(final int castlingRights, final int from, final int to) {
+        return castlingRights & MASKS[from] & MASKS[to];
+    }
+
+    /**
+     * The rights lost when the piece on the given square leaves it.
+     */
+    static int lostFrom(final int square) {
+        return ~MASKS[square] & ALL;
+    }
+
+    static int calculate(final Board board) {
+        int castlingRights = NONE;
+        if (hasNotMoved(board, 60, Alliance.WHITE, PieceType.KING)) {
+            castlingRights |= hasNotMoved(board, 63, Alliance.WHITE, PieceType.ROOK) ? WHITE_KING_SIDE : NONE;
+            castlingRights |= hasNotMoved(board, 56, Alliance.WHITE, PieceType.ROOK) ? WHITE_QUEEN_SIDE : NONE;
+        }
+        if (hasNotMoved(board, 4, Alliance.BLACK, PieceType.KING)) {
+            castlingRights |= hasNotMoved(board, 7, Alliance.BLACK, PieceType.ROOK) ? BLACK_KING_SIDE : NONE;
+            castlingRights |= hasNotMoved(board, 0, Alliance.BLACK, PieceType.ROOK) ? BLACK_QUEEN_SIDE : NONE;
+        }
+        return castlingRights;
+    }
+
+    private static boolean hasNotMoved(final Board board,
+                                       final int square,
+                                       final Alliance alliance,
+                                       final PieceType pieceType) {
+        final Piece piece = board.getPiece(square);
+        return piece != null
+                && piece.isFirstMove()
+                && piece.getPieceAlliance() == alliance
+                && piece.getPieceType() == pieceType;
+    }
+
+    private static int[] initMasks() {
+        final int[] masks = new int[BoardUtils.NUM_TILES];
+        Arrays.fill(masks, ALL);
+        masks[60] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        masks[63] &= ~WHITE_KING_SIDE;
+        masks[56] &= ~WHITE_QUEEN_SIDE;
+        masks[4] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        masks[7] &= ~BLACK_KING_SIDE;
+        masks[0] &= ~BLACK_QUEEN_SIDE;
+        return masks;
+    }
+}
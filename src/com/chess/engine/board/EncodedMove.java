@@ -0,0 +1,113 @@
+package com.chess.engine.board;
+
+import com.chess.engine.board.Move.KingSideCastleMove;
+import com.chess.engine.board.Move.PawnEnPassantAttackMove;
+import com.chess.engine.board.Move.PawnJump;
+import com.chess.engine.board.Move.PawnPromotion;
+import com.chess.engine.board.Move.QueenSideCastleMove;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Packs a move into a single int so the search can generate and store moves
+ * without allocating. Bits 0-5 hold the from square, bits 6-11 the
+ * destination, bits 12-15 the kind of move and bits 16-18 the piece type a
+ * pawn promotes to.
+ *
+ * {@link #encode(Move)} and {@link #decode(Board, int)} convert to and from
+ * the {@link Move} objects the GUI and the rest of the engine work with.
+ */
+public final class EncodedMove {
+
+    public static final int NO_MOVE = 0;
+
+    public static final int QUIET_MOVE = 0;
+    public static final int PAWN_JUMP = 1;
+    public static final int KING_SIDE_CASTLE = 2;
+    public static final int QUEEN_SIDE_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+    public static final int PROMOTION_CAPTURE = 12;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private EncodedMove() {
+        throw new RuntimeException("You cannot instanciate me!");
+    }
+
+    public static int create(final int from, final int to, final int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    public static int createPromotion(final int from, final int to, final int flags, final PieceType promotionType) {
+        return create(from, to, flags) | (promotionType.ordinal() << 16);
+    }
+
+    public static int getFrom(final int move) {
+        return move & 63;
+    }
+
+    public static int getTo(final int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int getFlags(final int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static boolean isCapture(final int move) {
+        return (getFlags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(final int move) {
+        return (getFlags(move) & PROMOTION) != 0;
+    }
+
+    public static PieceType getPromotionType(final int move) {
+        return PIECE_TYPES[(move >>> 16) & 7];
+    }
+
+    public static int encode(final Move move) {
+        if (move == Move.NULL_MOVE) {
+            return NO_MOVE;
+        }
+        final int from = move.getCurrentCoordinate();
+        final int to = move.getDestinationCoordinate();
+        if (move instanceof PawnPromotion) {
+            return createPromotion(from, to, move.isAttack() ? PROMOTION_CAPTURE : PROMOTION,
+                    ((PawnPromotion) move).getPromotionPiece().getPieceType());
+        }
+        if (move instanceof KingSideCastleMove) {
+            return create(from, to, KING_SIDE_CASTLE);
+        }
+        if (move instanceof QueenSideCastleMove) {
+            return create(from, to, QUEEN_SIDE_CASTLE);
+        }
+        if (move instanceof PawnJump) {
+            return create(from, to, PAWN_JUMP);
+        }
+        if (move instanceof PawnEnPassantAttackMove) {
+            return create(from, to, EN_PASSANT);
+        }
+        return create(from, to, move.isAttack() ? CAPTURE : QUIET_MOVE);
+    }
+
+    /**
+     * Finds the move of the board's current player that the encoded move
+     * describes, or {@link Move#NULL_MOVE} when it has none.
+     */
+    public static Move decode(final Board board, final int encodedMove) {
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (encode(move) == encodedMove) {
+                return move;
+            }
+        }
+        return Move.NULL_MOVE;
+    }
+
+    public static String toString(final int move) {
+        final String squares = BoardUtils.getPositionAtCoordinate(getFrom(move))
+                + BoardUtils.getPositionAtCoordinate(getTo(move));
+        return isPromotion(move) ? squares + getPromotionType(move).toString().toLowerCase() : squares;
+    }
+}
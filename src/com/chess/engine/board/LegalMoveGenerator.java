@@ -0,0 +1,245 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import static com.chess.engine.board.EncodedMove.CAPTURE;
+import static com.chess.engine.board.EncodedMove.EN_PASSANT;
+import static com.chess.engine.board.EncodedMove.KING_SIDE_CASTLE;
+import static com.chess.engine.board.EncodedMove.PAWN_JUMP;
+import static com.chess.engine.board.EncodedMove.PROMOTION;
+import static com.chess.engine.board.EncodedMove.PROMOTION_CAPTURE;
+import static com.chess.engine.board.EncodedMove.QUEEN_SIDE_CASTLE;
+import static com.chess.engine.board.EncodedMove.QUIET_MOVE;
+
+/**
+ * Generates only legal moves, so nothing has to be played out to find out
+ * whether it leaves the king attacked.
+ *
+ * Before any piece moves the generator works out which enemy pieces give
+ * check and which friendly pieces are pinned to the king. With two checkers
+ * only the king may move. With one, every other move must capture the
+ * checker or block the line between it and the king. A pinned piece may only
+ * move along the line through its king and the pinner. King moves are tested
+ * with the king lifted off the board, so it cannot step back along the line
+ * of a slider. En passant, which takes two pieces off one rank at once, is
+ * checked on its own.
+ *
+ * {@link #generateCaptures} runs the same steps but never produces a quiet
+ * move, for searches that only want to resolve exchanges, and
+ * {@link #hasLegalMoves} stops as soon as one piece has a move.
+ */
+public final class LegalMoveGenerator {
+
+    // for callers that only ask whether there is a move
+    private static final ThreadLocal<MoveList> SCRATCH_MOVES = ThreadLocal.withInitial(MoveList::new);
+
+    private LegalMoveGenerator() {
+        throw new RuntimeException("You cannot instanciate me!");
+    }
+
+    public static boolean hasLegalMoves(final BitBoard bitBoard,
+                                        final Alliance alliance,
+                                        final int castlingRights,
+                                        final int enPassantSquare) {
+        return hasLegalMoves(bitBoard, alliance, castlingRights, enPassantSquare, SCRATCH_MOVES.get());
+    }
+
+    /**
+     * Whether the side has any legal move, using the list as scratch space.
+     * Generation stops at the first piece that can move; king moves come
+     * first, so a side that is not mated usually answers straight away.
+     */
+    public static boolean hasLegalMoves(final BitBoard bitBoard,
+                                        final Alliance alliance,
+                                        final int castlingRights,
+                                        final int enPassantSquare,
+                                        final MoveList scratch) {
+        return generate(bitBoard, alliance, castlingRights, enPassantSquare, false, true, scratch) != 0;
+    }
+
+    /**
+     * Fills the list with the legal moves of the board's current player and
+     * returns how many there are.
+     */
+    public static int generateLegalMoves(final Board board, final MoveList moves) {
+        return generateLegalMoves(board.getBitBoard(), board.currentPlayer().getAlliance(),
+                board.getCastlingRights(), board.getEnPassantSquare(), moves);
+    }
+
+    public static int generateLegalMoves(final BitBoard bitBoard,
+                                         final Alliance alliance,
+                                         final int castlingRights,
+                                         final int enPassantSquare,
+                                         final MoveList moves) {
+        return generate(bitBoard, alliance, castlingRights, enPassantSquare, false, false, moves);
+    }
+
+    /**
+     * Fills the list with the legal captures and promotions, including en
+     * passant, and returns how many there are. Quiet moves and castling are
+     * left out.
+     */
+    public static int generateCaptures(final BitBoard bitBoard,
+                                       final Alliance alliance,
+                                       final int enPassantSquare,
+                                       final MoveList moves) {
+        return generate(bitBoard, alliance, CastlingRights.NONE, enPassantSquare, true, false, moves);
+    }
+
+    private static int generate(final BitBoard bitBoard,
+                                final Alliance alliance,
+                                final int castlingRights,
+                                final int enPassantSquare,
+                                final boolean capturesOnly,
+                                final boolean firstOnly,
+                                final MoveList moves) {
+        moves.clear();
+        final Alliance opponent = alliance.getOpponent();
+        final long own = bitBoard.getOccupancy(alliance);
+        final long enemies = bitBoard.getOccupancy(opponent);
+        final long occupied = own | enemies;
+        final long empty = ~occupied;
+        // the squares a move may land on: anything not our own, or only enemy pieces
+        final long destinations = capturesOnly ? enemies : ~own;
+        final int kingSquare = BitBoardUtils.firstSquare(bitBoard.getPieces(alliance, PieceType.KING));
+
+        final long checkers = bitBoard.getAttackers(kingSquare, opponent);
+        final long occupiedWithoutKing = occupied & ~BitBoardUtils.squareBit(kingSquare);
+        for (long targets = AttackTables.kingAttacks(kingSquare) & destinations; targets != 0; targets = BitBoardUtils.clearFirstSquare(targets)) {
+            final int to = BitBoardUtils.firstSquare(targets);
+            if (bitBoard.getAttackers(to, opponent, occupiedWithoutKing) == 0) {
+                moves.add(EncodedMove.create(kingSquare, to, BitBoardUtils.isSet(enemies, to) ? CAPTURE : QUIET_MOVE));
+            }
+        }
+        if (BitBoardUtils.count(checkers) > 1 || (firstOnly && moves.size() != 0)) {
+            return moves.size();
+        }
+
+        final long checkMask = checkers == 0
+                ? BitBoardUtils.ALL_SQUARES
+                : checkers | AttackTables.between(kingSquare, BitBoardUtils.firstSquare(checkers));
+        final long pinned = calculatePinned(bitBoard, kingSquare, opponent, own, occupied);
+
+        final long pawns = bitBoard.getPieces(alliance, PieceType.PAWN);
+        for (long remaining = pawns; remaining != 0; remaining = BitBoardUtils.clearFirstSquare(remaining)) {
+            final int from = BitBoardUtils.firstSquare(remaining);
+            final long allowed = BitBoardUtils.isSet(pinned, from) ? checkMask & AttackTables.line(kingSquare, from) : checkMask;
+            final long push = AttackTables.pawnPushes(alliance, from) & empty;
+            if (push != 0 && (!capturesOnly || isPromotionSquare(alliance, BitBoardUtils.firstSquare(push)))) {
+                final int to = BitBoardUtils.firstSquare(push);
+                if ((push & allowed) != 0) {
+                    moves.add(isPromotionSquare(alliance, to)
+                            ? EncodedMove.createPromotion(from, to, PROMOTION, PieceType.QUEEN)
+                            : EncodedMove.create(from, to, QUIET_MOVE));
+                }
+                final long jump = AttackTables.pawnJumps(alliance, from) & empty & allowed;
+                if (jump != 0) {
+                    moves.add(EncodedMove.create(from, BitBoardUtils.firstSquare(jump), PAWN_JUMP));
+                }
+            }
+            final long attacks = AttackTables.pawnAttacks(alliance, from);
+            for (long captures = attacks & enemies & allowed; captures != 0; captures = BitBoardUtils.clearFirstSquare(captures)) {
+                final int to = BitBoardUtils.firstSquare(captures);
+                moves.add(isPromotionSquare(alliance, to)
+                        ? EncodedMove.createPromotion(from, to, PROMOTION_CAPTURE, PieceType.QUEEN)
+                        : EncodedMove.create(from, to, CAPTURE));
+            }
+            if (enPassantSquare != -1
+                    && BitBoardUtils.isSet(attacks, enPassantSquare)
+                    && isEnPassantLegal(bitBoard, alliance, kingSquare, from, enPassantSquare, occupied)) {
+                moves.add(EncodedMove.create(from, enPassantSquare, EN_PASSANT));
+            }
+            if (firstOnly && moves.size() != 0) {
+                return moves.size();
+            }
+        }
+
+        final long targetMask = destinations & checkMask;
+        for (long knights = bitBoard.getPieces(alliance, PieceType.KNIGHT) & ~pinned; knights != 0; knights = BitBoardUtils.clearFirstSquare(knights)) {
+            final int from = BitBoardUtils.firstSquare(knights);
+            addMoves(moves, from, AttackTables.knightAttacks(from) & targetMask, enemies);
+            if (firstOnly && moves.size() != 0) {
+                return moves.size();
+            }
+        }
+        final long queens = bitBoard.getPieces(alliance, PieceType.QUEEN);
+        for (long diagonals = bitBoard.getPieces(alliance, PieceType.BISHOP) | queens; diagonals != 0; diagonals = BitBoardUtils.clearFirstSquare(diagonals)) {
+            final int from = BitBoardUtils.firstSquare(diagonals);
+            addMoves(moves, from, MagicBitBoards.bishopAttacks(from, occupied) & targetMask & pinRay(pinned, kingSquare, from), enemies);
+            if (firstOnly && moves.size() != 0) {
+                return moves.size();
+            }
+        }
+        for (long straights = bitBoard.getPieces(alliance, PieceType.ROOK) | queens; straights != 0; straights = BitBoardUtils.clearFirstSquare(straights)) {
+            final int from = BitBoardUtils.firstSquare(straights);
+            addMoves(moves, from, MagicBitBoards.rookAttacks(from, occupied) & targetMask & pinRay(pinned, kingSquare, from), enemies);
+            if (firstOnly && moves.size() != 0) {
+                return moves.size();
+            }
+        }
+
+        if (checkers == 0 && !capturesOnly) {
+            if (CastlingRights.canCastleKingSide(bitBoard, alliance, castlingRights)) {
+                moves.add(EncodedMove.create(kingSquare, kingSquare + 2, KING_SIDE_CASTLE));
+            }
+            if (CastlingRights.canCastleQueenSide(bitBoard, alliance, castlingRights)) {
+                moves.add(EncodedMove.create(kingSquare, kingSquare - 2, QUEEN_SIDE_CASTLE));
+            }
+        }
+        return moves.size();
+    }
+
+    /**
+     * Friendly pieces that stand alone between the king and an enemy slider
+     * looking at it along a line the slider moves on.
+     */
+    private static long calculatePinned(final BitBoard bitBoard,
+                                        final int kingSquare,
+                                        final Alliance opponent,
+                                        final long own,
+                                        final long occupied) {
+        final long enemies = bitBoard.getOccupancy(opponent);
+        final long queens = bitBoard.getPieces(opponent, PieceType.QUEEN);
+        // with only enemy pieces as blockers the king sees straight through its own men
+        final long snipers = (MagicBitBoards.rookAttacks(kingSquare, enemies) & (bitBoard.getPieces(opponent, PieceType.ROOK) | queens))
+                | (MagicBitBoards.bishopAttacks(kingSquare, enemies) & (bitBoard.getPieces(opponent, PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        for (long remaining = snipers; remaining != 0; remaining = BitBoardUtils.clearFirstSquare(remaining)) {
+            final long blockers = AttackTables.between(kingSquare, BitBoardUtils.firstSquare(remaining)) & occupied;
+            if (BitBoardUtils.count(blockers) == 1) {
+                pinned |= blockers & own;
+            }
+        }
+        return pinned;
+    }
+
+    private static long pinRay(final long pinned, final int kingSquare, final int square) {
+        return BitBoardUtils.isSet(pinned, square) ? AttackTables.line(kingSquare, square) : BitBoardUtils.ALL_SQUARES;
+    }
+
+    private static boolean isEnPassantLegal(final BitBoard bitBoard,
+                                            final Alliance alliance,
+                                            final int kingSquare,
+                                            final int from,
+                                            final int to,
+                                            final long occupied) {
+        final int capturedSquare = to - (alliance.getDirection() * 8);
+        final long occupiedAfter = (occupied & ~BitBoardUtils.squareBit(from) & ~BitBoardUtils.squareBit(capturedSquare))
+                | BitBoardUtils.squareBit(to);
+        return bitBoard.getAttackers(kingSquare, alliance.getOpponent(), occupiedAfter) == 0;
+    }
+
+    private static void addMoves(final MoveList moves, final int from, final long targets, final long enemies) {
+        for (long captures = targets & enemies; captures != 0; captures = BitBoardUtils.clearFirstSquare(captures)) {
+            moves.add(EncodedMove.create(from, BitBoardUtils.firstSquare(captures), CAPTURE));
+        }
+        for (long quiets = targets & ~enemies; quiets != 0; quiets = BitBoardUtils.clearFirstSquare(quiets)) {
+            moves.add(EncodedMove.create(from, BitBoardUtils.firstSquare(quiets), QUIET_MOVE));
+        }
+    }
+
+    private static boolean isPromotionSquare(final Alliance alliance, final int square) {
+        return BitBoardUtils.isSet(AttackTables.promotionSquares(alliance), square);
+    }
+}
@@ -0,0 +1,167 @@
+package com.chess.engine.board;
+
+/**
+ * Sliding piece attacks looked up from magic bitboard tables. For every square
+ * the relevant blockers are masked out of the occupancy, multiplied by a magic
+ * number and shifted down to an index into a precomputed attack table, so a
+ * rook or bishop attack set costs one multiply and one array read.
+ *
+ * The magic numbers are searched for once when the class loads, from a fixed
+ * seed, so the tables are identical on every run.
+ */
+public final class MagicBitBoards {
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private static final long[] ROOK_MASKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] ROOK_MAGICS = new long[BoardUtils.NUM_TILES];
+    private static final int[] ROOK_SHIFTS = new int[BoardUtils.NUM_TILES];
+    private static final int[] ROOK_OFFSETS = new int[BoardUtils.NUM_TILES];
+    private static final long[] ROOK_ATTACKS;
+
+    private static final long[] BISHOP_MASKS = new long[BoardUtils.NUM_TILES];
+    private static final long[] BISHOP_MAGICS = new long[BoardUtils.NUM_TILES];
+    private static final int[] BISHOP_SHIFTS = new int[BoardUtils.NUM_TILES];
+    private static final int[] BISHOP_OFFSETS = new int[BoardUtils.NUM_TILES];
+    private static final long[] BISHOP_ATTACKS;
+
+    private static long seed = 0x2545F4914F6CDD1DL;
+
+    static {
+        ROOK_ATTACKS = initMagics(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS);
+        BISHOP_ATTACKS = initMagics(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+    }
+
+    private MagicBitBoards() {
+        throw new RuntimeException("You cannot instanciate me!");
+    }
+
+    public static long rookAttacks(final int square, final long occupied) {
+        return ROOK_ATTACKS[ROOK_OFFSETS[square]
+                + (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    public static long bishopAttacks(final int square, final long occupied) {
+        return BISHOP_ATTACKS[BISHOP_OFFSETS[square]
+                + (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    public static long queenAttacks(final int square, final long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    private static long[] initMagics(final int[][] directions,
+                                     final long[] masks,
+                                     final long[] magics,
+                                     final int[] shifts,
+                                     final int[] offsets) {
+        int tableSize = 0;
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            masks[square] = relevantOccupancyMask(square, directions);
+            shifts[square] = 64 - BitBoardUtils.count(masks[square]);
+            offsets[square] = tableSize;
+            tableSize += 1 << BitBoardUtils.count(masks[square]);
+        }
+        final long[] attacks = new long[tableSize];
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            findMagic(square, directions, masks, magics, shifts, offsets, attacks);
+        }
+        return attacks;
+    }
+
+    private static void findMagic(final int square,
+                                  final int[][] directions,
+                                  final long[] masks,
+                                  final long[] magics,
+                                  final int[] shifts,
+                                  final int[] offsets,
+                                  final long[] attacks) {
+        final long mask = masks[square];
+        final int size = 1 << BitBoardUtils.count(mask);
+        final long[] occupancies = new long[size];
+        final long[] references = new long[size];
+
+        // enumerate every subset of the mask with the carry-rippler trick
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            references[i] = slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        final int[] epoch = new int[size];
+        for (int attempt = 1; ; attempt++) {
+            final long magic = nextSparseRandom();
+            if (BitBoardUtils.count((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            boolean collision = false;
+            for (int i = 0; i < size && !collision; i++) {
+                final int index = (int) ((occupancies[i] * magic) >>> shifts[square]);
+                if (epoch[index] != attempt) {
+                    epoch[index] = attempt;
+                    attacks[offsets[square] + index] = references[i];
+                } else if (attacks[offsets[square] + index] != references[i]) {
+                    collision = true;
+                }
+            }
+            if (!collision) {
+                magics[square] = magic;
+                return;
+            }
+        }
+    }
+
+    private static long relevantOccupancyMask(final int square, final int[][] directions) {
+        long mask = 0;
+        final int row = BitBoardUtils.getRow(square);
+        final int column = BitBoardUtils.getColumn(square);
+        for (final int[] direction : directions) {
+            int r = row + direction[0];
+            int c = column + direction[1];
+            // the last square of a ray never blocks anything behind it
+            while (isOnBoard(r + direction[0], c + direction[1])) {
+                mask |= BitBoardUtils.squareBit(r * BoardUtils.NUM_TILES_PER_ROW + c);
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long slidingAttacks(final int square, final long occupied, final int[][] directions) {
+        long attacks = 0;
+        final int row = BitBoardUtils.getRow(square);
+        final int column = BitBoardUtils.getColumn(square);
+        for (final int[] direction : directions) {
+            int r = row + direction[0];
+            int c = column + direction[1];
+            while (isOnBoard(r, c)) {
+                final long bit = BitBoardUtils.squareBit(r * BoardUtils.NUM_TILES_PER_ROW + c);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean isOnBoard(final int row, final int column) {
+        return row >= 0 && row < BoardUtils.NUM_TILES_PER_ROW && column >= 0 && column < BoardUtils.NUM_TILES_PER_ROW;
+    }
+
+    private static long nextSparseRandom() {
+        return nextRandom() & nextRandom() & nextRandom();
+    }
+
+    private static long nextRandom() {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+}
@@ -3,6 +3,8 @@ package com.chess.engine.board;
 import com.chess.engine.board.Board.Builder;
 import com.chess.engine.pieces.Pawn;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.PieceUtils;
 import com.chess.engine.pieces.Rook;
 
 public abstract class Move {
@@ -55,7 +57,7 @@ public abstract class Move {
     return (
       getCurrentCoordinate() == otherMove.getCurrentCoordinate() &&
       getDestinationCoordinate() == otherMove.getDestinationCoordinate() &&
-      getMovedPiece().equals(otherMove.getMovedPiece())
+      getMovedPiece() == otherMove.getMovedPiece()
     );
   }
 
@@ -88,18 +90,11 @@ public abstract class Move {
   }
 
   public Board execute() {
-    final Builder builder = new Builder();
-    for (final Piece piece : this.board.currentPlayer().getActivePieces()) {
-      if (!this.movedPiece.equals(piece)) {
-        builder.setPiece(piece);
-      }
-    }
-    for (final Piece piece : this.board.currentPlayer()
-      .getOpponent()
-      .getActivePieces()) {
-      builder.setPiece(piece);
-    }
-    //move the moved piece
+    // start from this board and touch only the squares the move changes,
+    // which also keeps the zobrist key up to date incrementally
+    final Builder builder = new Builder(this.board);
+    builder.removePiece(this.movedPiece);
+    //move the moved piece, replacing anything captured on the destination
     builder.setPiece(this.movedPiece.movePiece(this));
     builder.setMoveMaker(
       this.board.currentPlayer().getOpponent().getAlliance()
@@ -191,7 +186,7 @@ public abstract class Move {
       final AttackMove otherAttackMove = (AttackMove) other;
       return (
         super.equals(otherAttackMove) &&
-        getAttackedPiece().equals(otherAttackMove.getAttackedPiece())
+        getAttackedPiece() == otherAttackMove.getAttackedPiece()
       );
     }
 
@@ -281,20 +276,9 @@ public abstract class Move {
 
     @Override
     public Board execute() {
-      final Builder builder = new Builder();
-      for (final Piece piece : this.board.currentPlayer().getActivePieces()) {
-        if (!this.movedPiece.equals(piece)) {
-          builder.setPiece(piece);
-        }
-      }
-      for (final Piece piece : this.board.currentPlayer()
-        .getOpponent()
-        .getActivePieces()) {
-        if (!piece.equals(this.getAttackedPiece())) {
-          builder.setPiece(piece);
-        }
-      }
-
+      final Builder builder = new Builder(this.board);
+      builder.removePiece(this.movedPiece);
+      builder.removePiece(this.getAttackedPiece());
       builder.setPiece(this.movedPiece.movePiece(this));
       builder.setMoveMaker(
         this.board.currentPlayer().getOpponent().getAlliance()
@@ -332,27 +316,19 @@ public abstract class Move {
 
     @Override
     public Board execute() {
-      final Board pawnMovedBoard = this.decoratedMove.execute();
-      final Board.Builder builder = new Builder();
-
-      for (final Piece piece : pawnMovedBoard
-        .currentPlayer()
-        .getActivePieces()) {
-        if (!this.promotedPawn.equals(piece)) {
-          builder.setPiece(piece);
-        }
-      }
-      for (final Piece piece : pawnMovedBoard
-        .currentPlayer()
-        .getOpponent()
-        .getActivePieces()) {
-        builder.setPiece(piece);
-      }
+      final Builder builder = new Builder(this.board);
+      builder.removePiece(this.promotedPawn);
       builder.setPiece(this.promotedPawn.getPromotionPiece().movePiece(this));
-      builder.setMoveMaker(pawnMovedBoard.currentPlayer().getAlliance());
+      builder.setMoveMaker(
+        this.board.currentPlayer().getOpponent().getAlliance()
+      );
       return builder.build();
     }
 
+    public Piece getPromotionPiece() {
+      return this.promotedPawn.getPromotionPiece();
+    }
+
     @Override
     public boolean isAttack() {
       return this.decoratedMove.isAttack();
@@ -381,18 +357,8 @@ public abstract class Move {
 
     @Override
     public Board execute() {
-      final Builder builder = new Builder();
-      for (final Piece piece : this.board.currentPlayer().getActivePieces()) {
-        if (!(this.movedPiece.equals(piece))) {
-          builder.setPiece(piece);
-        }
-      }
-      for (final Piece piece : board
-        .currentPlayer()
-        .getOpponent()
-        .getActivePieces()) {
-        builder.setPiece(piece);
-      }
+      final Builder builder = new Builder(this.board);
+      builder.removePiece(this.movedPiece);
       final Pawn movedPawn = (Pawn) this.movedPiece.movePiece(this);
       builder.setPiece(movedPawn);
       builder.setEnPassantPawn(movedPawn);
@@ -440,22 +406,18 @@ public abstract class Move {
 
     @Override
     public Board execute() {
-      final Builder builder = new Builder();
-      for (final Piece piece : this.board.currentPlayer().getActivePieces()) {
-        if (!this.movedPiece.equals(piece) && !this.castleRook.equals(piece)) {
-          builder.setPiece(piece);
-        }
-      }
-      for (final Piece piece : this.board.currentPlayer()
-        .getOpponent()
-        .getActivePieces()) {
-        builder.setPiece(piece);
-      }
+      final Builder builder = new Builder(this.board);
+      builder.removePiece(this.movedPiece);
+      builder.removePiece(this.castleRook);
 
       builder.setPiece(this.movedPiece.movePiece(this));
-      //TODO look into the first move on normal pieces
       builder.setPiece(
-        new Rook(this.castleRookDesination, this.castleRook.getPieceAlliance())
+        PieceUtils.getPiece(
+          PieceType.ROOK,
+          this.castleRook.getPieceAlliance(),
+          this.castleRookDesination,
+          false
+        )
       );
       builder.setMoveMaker(
         this.board.currentPlayer().getOpponent().getAlliance()
@@ -483,7 +445,7 @@ public abstract class Move {
       final CastleMove otherCastleMove = (CastleMove) other;
       return (
         super.equals(otherCastleMove) &&
-        this.castleRook.equals(otherCastleMove.getCastleRook())
+        this.castleRook == otherCastleMove.getCastleRook()
       );
     }
   }
@@ -562,9 +524,22 @@ public abstract class Move {
       super(null, 65);
     }
 
+    /**
+     * A pass on the given board: executing it hands the turn to the other
+     * side and leaves every piece where it is.
+     */
+    public NullMove(final Board board) {
+      super(board, 65);
+    }
+
     @Override
     public Board execute() {
-      throw new RuntimeException("cannot execute the null move!");
+      if (this.board == null) {
+        throw new RuntimeException("cannot execute the null move!");
+      }
+      final Builder builder = new Builder(this.board);
+      builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+      return builder.build();
     }
 
     @Override
@@ -0,0 +1,47 @@
+package com.chess.engine.board;
+
+/**
+ * A reusable list of {@link EncodedMove encoded moves} backed by a plain int
+ * array. The search keeps one per ply and refills it in every node, so move
+ * generation does not allocate.
+ */
+public final class MoveList {
+
+    public static final int MAX_MOVES = 256;
+
+    private final int[] moves;
+    private int size;
+
+    public MoveList() {
+        this.moves = new int[MAX_MOVES];
+    }
+
+    public void add(final int move) {
+        this.moves[this.size++] = move;
+    }
+
+    public int get(final int index) {
+        return this.moves[index];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public boolean contains(final int move) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+}
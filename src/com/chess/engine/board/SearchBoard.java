@@ -0,0 +1,448 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.PieceUtils;
+
+import java.util.Arrays;
+
+import static com.chess.engine.board.EncodedMove.CAPTURE;
+import static com.chess.engine.board.EncodedMove.EN_PASSANT;
+import static com.chess.engine.board.EncodedMove.KING_SIDE_CASTLE;
+import static com.chess.engine.board.EncodedMove.PAWN_JUMP;
+import static com.chess.engine.board.EncodedMove.PROMOTION;
+import static com.chess.engine.board.EncodedMove.PROMOTION_CAPTURE;
+import static com.chess.engine.board.EncodedMove.QUEEN_SIDE_CASTLE;
+import static com.chess.engine.board.EncodedMove.QUIET_MOVE;
+
+/**
+ * A mutable position for the search. Moves are applied in place with
+ * {@link #makeMove(int)} and taken back with {@link #unmakeMove()}, which pops
+ * the state saved on an undo stack, so walking the tree allocates nothing.
+ *
+ * Moves are {@link EncodedMove encoded} as plain ints and generated into a
+ * {@link MoveList}. Generation follows the same rules as the
+ * pieces of an immutable {@link Board}: only queen promotions, and castling
+ * rights derived from the first-move flags of the kings and rooks.
+ */
+public final class SearchBoard {
+
+    static final int NO_PIECE = -1;
+    static final int NO_SQUARE = -1;
+
+    private static final int BLACK_OFFSET = BitBoard.index(Alliance.BLACK, PieceType.PAWN);
+
+    private final BitBoard bitBoard;
+    private final int[] mailbox;
+    private Alliance sideToMove;
+    private int castlingRights;
+    private int enPassantSquare;
+    private long zobristKey;
+
+    private final MoveList escapeMoves;
+    private int[] undoMoves;
+    private int[] undoStates;
+    private long[] undoKeys;
+    private int undoSize;
+
+    public SearchBoard(final Board board) {
+        this.bitBoard = new BitBoard();
+        this.mailbox = new int[BoardUtils.NUM_TILES];
+        for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+            this.mailbox[i] = NO_PIECE;
+            final Piece piece = board.getPiece(i);
+            if (piece != null) {
+                addPiece(BitBoard.index(piece.getPieceAlliance(), piece.getPieceType()), i);
+            }
+        }
+        this.sideToMove = board.currentPlayer().getAlliance();
+        this.castlingRights = board.getCastlingRights();
+        this.enPassantSquare = board.getEnPassantSquare();
+        this.escapeMoves = new MoveList();
+        this.undoMoves = new int[64];
+        this.undoStates = new int[64];
+        this.undoKeys = new long[64];
+        this.zobristKey = board.getZobristKey();
+    }
+
+    /**
+     * The {@link Zobrist} key of the current position, equal to the key of
+     * the {@link Board} that {@link #toBoard()} would build.
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * How many moves have been made on this board and not yet taken back.
+     */
+    public int getPly() {
+        return this.undoSize;
+    }
+
+    public Alliance getSideToMove() {
+        return this.sideToMove;
+    }
+
+    public BitBoard getBitBoard() {
+        return this.bitBoard;
+    }
+
+    /**
+     * The {@link BitBoard#index} of the piece on a square, or -1 when the
+     * square is empty.
+     */
+    public int getPieceIndex(final int square) {
+        return this.mailbox[square];
+    }
+
+    public int getKingSquare(final Alliance alliance) {
+        return BitBoardUtils.firstSquare(this.bitBoard.getPieces(alliance, PieceType.KING));
+    }
+
+    public boolean isInCheck(final Alliance alliance) {
+        return this.bitBoard.isSquareAttacked(getKingSquare(alliance), alliance.getOpponent());
+    }
+
+    public boolean isInCheck() {
+        return isInCheck(this.sideToMove);
+    }
+
+    public boolean isInCheckMate() {
+        return isInCheck() && !hasLegalMoves();
+    }
+
+    public boolean isInStaleMate() {
+        return !isInCheck() && !hasLegalMoves();
+    }
+
+    public boolean hasLegalMoves() {
+        return LegalMoveGenerator.hasLegalMoves(this.bitBoard, this.sideToMove,
+                this.castlingRights, this.enPassantSquare, this.escapeMoves);
+    }
+
+    /**
+     * Replaces the contents of the list with the legal moves of the side to
+     * move and returns how many there are.
+     */
+    public int generateLegalMoves(final MoveList moves) {
+        return LegalMoveGenerator.generateLegalMoves(this.bitBoard, this.sideToMove,
+                this.castlingRights, this.enPassantSquare, moves);
+    }
+
+    /**
+     * Replaces the contents of the list with the legal captures and
+     * promotions of the side to move and returns how many there are.
+     */
+    public int generateCaptures(final MoveList moves) {
+        return LegalMoveGenerator.generateCaptures(this.bitBoard, this.sideToMove, this.enPassantSquare, moves);
+    }
+
+    /**
+     * Applies a pseudo-legal move generated for this position. When the move
+     * would leave the mover's king attacked it is taken back straight away and
+     * false is returned, otherwise it stays on the board until
+     * {@link #unmakeMove()}.
+     */
+    public boolean makeMove(final int move) {
+        final int from = EncodedMove.getFrom(move);
+        final int to = EncodedMove.getTo(move);
+        final int flags = EncodedMove.getFlags(move);
+        final Alliance mover = this.sideToMove;
+        final int movedPiece = this.mailbox[from];
+        final int captureSquare = flags == EN_PASSANT ? to - (mover.getDirection() * 8) : to;
+        final int capturedPiece = this.mailbox[captureSquare];
+
+        pushUndo(move, capturedPiece);
+        this.zobristKey ^= Zobrist.castlingKey(this.castlingRights)
+                ^ Zobrist.enPassantKey(this.bitBoard, mover, this.enPassantSquare)
+                ^ Zobrist.sideToMoveKey(mover);
+
+        if (capturedPiece != NO_PIECE) {
+            removePiece(capturedPiece, captureSquare);
+        }
+        removePiece(movedPiece, from);
+        addPiece((flags & PROMOTION) != 0
+                ? BitBoard.index(mover, EncodedMove.getPromotionType(move))
+                : movedPiece, to);
+        if (flags == KING_SIDE_CASTLE) {
+            movePiece(to + 1, to - 1);
+        } else if (flags == QUEEN_SIDE_CASTLE) {
+            movePiece(to - 2, to + 1);
+        }
+
+        this.castlingRights = CastlingRights.update(this.castlingRights, from, to);
+        this.enPassantSquare = flags == PAWN_JUMP ? (from + to) >>> 1 : NO_SQUARE;
+        this.sideToMove = mover.getOpponent();
+        this.zobristKey ^= Zobrist.castlingKey(this.castlingRights)
+                ^ Zobrist.enPassantKey(this.bitBoard, this.sideToMove, this.enPassantSquare)
+                ^ Zobrist.sideToMoveKey(this.sideToMove);
+
+        if (isInCheck(mover)) {
+            unmakeMove();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Passes the turn: the other side moves next and any en passant capture
+     * is gone. Taken back with {@link #unmakeNullMove()}.
+     */
+    public void makeNullMove() {
+        pushUndo(EncodedMove.NO_MOVE, NO_PIECE);
+        this.zobristKey ^= Zobrist.enPassantKey(this.bitBoard, this.sideToMove, this.enPassantSquare)
+                ^ Zobrist.sideToMoveKey(this.sideToMove);
+        this.enPassantSquare = NO_SQUARE;
+        this.sideToMove = this.sideToMove.getOpponent();
+        this.zobristKey ^= Zobrist.sideToMoveKey(this.sideToMove);
+    }
+
+    public void unmakeNullMove() {
+        this.undoSize--;
+        this.enPassantSquare = (this.undoStates[this.undoSize] >>> 8) - 1;
+        this.sideToMove = this.sideToMove.getOpponent();
+        this.zobristKey = this.undoKeys[this.undoSize];
+    }
+
+    /**
+     * Whether the last move made on this board was {@link #makeNullMove()}.
+     */
+    public boolean isAfterNullMove() {
+        return this.undoSize > 0 && this.undoMoves[this.undoSize - 1] == EncodedMove.NO_MOVE;
+    }
+
+    public void unmakeMove() {
+        this.undoSize--;
+        final int move = this.undoMoves[this.undoSize];
+        final int state = this.undoStates[this.undoSize];
+        final int from = EncodedMove.getFrom(move);
+        final int to = EncodedMove.getTo(move);
+        final int flags = EncodedMove.getFlags(move);
+        final Alliance mover = this.sideToMove.getOpponent();
+
+        final int placedPiece = this.mailbox[to];
+        removePiece(placedPiece, to);
+        addPiece((flags & PROMOTION) != 0 ? BitBoard.index(mover, PieceType.PAWN) : placedPiece, from);
+        if (flags == KING_SIDE_CASTLE) {
+            movePiece(to - 1, to + 1);
+        } else if (flags == QUEEN_SIDE_CASTLE) {
+            movePiece(to + 1, to - 2);
+        }
+        final int capturedPiece = (state & 0xF) - 1;
+        if (capturedPiece != NO_PIECE) {
+            addPiece(capturedPiece, flags == EN_PASSANT ? to - (mover.getDirection() * 8) : to);
+        }
+
+        this.castlingRights = (state >>> 4) & 0xF;
+        this.enPassantSquare = (state >>> 8) - 1;
+        this.sideToMove = mover;
+        this.zobristKey = this.undoKeys[this.undoSize];
+    }
+
+    /**
+     * Replaces the contents of the list with the pseudo-legal moves of the
+     * side to move and returns how many there are.
+     */
+    public int generateMoves(final MoveList moves) {
+        moves.clear();
+        final Alliance alliance = this.sideToMove;
+        final long own = this.bitBoard.getOccupancy(alliance);
+        final long enemies = this.bitBoard.getOccupancy(alliance.getOpponent());
+        final long occupied = own | enemies;
+        final long empty = ~occupied;
+        final int base = alliance.ordinal() * BLACK_OFFSET;
+
+        for (long pawns = this.bitBoard.getPieces(base); pawns != 0; pawns = BitBoardUtils.clearFirstSquare(pawns)) {
+            final int from = BitBoardUtils.firstSquare(pawns);
+            final long push = AttackTables.pawnPushes(alliance, from) & empty;
+            if (push != 0) {
+                final int to = BitBoardUtils.firstSquare(push);
+                moves.add(isPromotionSquare(alliance, to)
+                        ? EncodedMove.createPromotion(from, to, PROMOTION, PieceType.QUEEN)
+                        : EncodedMove.create(from, to, QUIET_MOVE));
+                final long jump = AttackTables.pawnJumps(alliance, from) & empty;
+                if (jump != 0) {
+                    moves.add(EncodedMove.create(from, BitBoardUtils.firstSquare(jump), PAWN_JUMP));
+                }
+            }
+            final long attacks = AttackTables.pawnAttacks(alliance, from);
+            for (long captures = attacks & enemies; captures != 0; captures = BitBoardUtils.clearFirstSquare(captures)) {
+                final int to = BitBoardUtils.firstSquare(captures);
+                moves.add(isPromotionSquare(alliance, to)
+                        ? EncodedMove.createPromotion(from, to, PROMOTION_CAPTURE, PieceType.QUEEN)
+                        : EncodedMove.create(from, to, CAPTURE));
+            }
+            if (this.enPassantSquare != NO_SQUARE && BitBoardUtils.isSet(attacks, this.enPassantSquare)) {
+                moves.add(EncodedMove.create(from, this.enPassantSquare, EN_PASSANT));
+            }
+        }
+        for (long knights = this.bitBoard.getPieces(base + 1); knights != 0; knights = BitBoardUtils.clearFirstSquare(knights)) {
+            final int from = BitBoardUtils.firstSquare(knights);
+            addMoves(moves, from, AttackTables.knightAttacks(from) & ~own, enemies);
+        }
+        for (long bishops = this.bitBoard.getPieces(base + 2); bishops != 0; bishops = BitBoardUtils.clearFirstSquare(bishops)) {
+            final int from = BitBoardUtils.firstSquare(bishops);
+            addMoves(moves, from, MagicBitBoards.bishopAttacks(from, occupied) & ~own, enemies);
+        }
+        for (long rooks = this.bitBoard.getPieces(base + 3); rooks != 0; rooks = BitBoardUtils.clearFirstSquare(rooks)) {
+            final int from = BitBoardUtils.firstSquare(rooks);
+            addMoves(moves, from, MagicBitBoards.rookAttacks(from, occupied) & ~own, enemies);
+        }
+        for (long queens = this.bitBoard.getPieces(base + 4); queens != 0; queens = BitBoardUtils.clearFirstSquare(queens)) {
+            final int from = BitBoardUtils.firstSquare(queens);
+            addMoves(moves, from, MagicBitBoards.queenAttacks(from, occupied) & ~own, enemies);
+        }
+        final int kingSquare = getKingSquare(alliance);
+        addMoves(moves, kingSquare, AttackTables.kingAttacks(kingSquare) & ~own, enemies);
+        if (canCastleKingSide(alliance)) {
+            moves.add(EncodedMove.create(kingSquare, kingSquare + 2, KING_SIDE_CASTLE));
+        }
+        if (canCastleQueenSide(alliance)) {
+            moves.add(EncodedMove.create(kingSquare, kingSquare - 2, QUEEN_SIDE_CASTLE));
+        }
+        return moves.size();
+    }
+
+    /**
+     * The number of pseudo-legal moves the given side has in this position,
+     * counted the way {@link com.chess.engine.player.Player#getLegalMoves()}
+     * would list them. En passant is only open to the side to move.
+     */
+    public int countMoves(final Alliance alliance) {
+        final long own = this.bitBoard.getOccupancy(alliance);
+        final long enemies = this.bitBoard.getOccupancy(alliance.getOpponent());
+        final long occupied = own | enemies;
+        final long empty = ~occupied;
+        final int base = alliance.ordinal() * BLACK_OFFSET;
+        final boolean canCaptureEnPassant = alliance == this.sideToMove && this.enPassantSquare != NO_SQUARE;
+        int count = 0;
+
+        for (long pawns = this.bitBoard.getPieces(base); pawns != 0; pawns = BitBoardUtils.clearFirstSquare(pawns)) {
+            final int from = BitBoardUtils.firstSquare(pawns);
+            if ((AttackTables.pawnPushes(alliance, from) & empty) != 0) {
+                count += (AttackTables.pawnJumps(alliance, from) & empty) != 0 ? 2 : 1;
+            }
+            final long attacks = AttackTables.pawnAttacks(alliance, from);
+            count += BitBoardUtils.count(attacks & enemies);
+            if (canCaptureEnPassant && BitBoardUtils.isSet(attacks, this.enPassantSquare)) {
+                count++;
+            }
+        }
+        for (long knights = this.bitBoard.getPieces(base + 1); knights != 0; knights = BitBoardUtils.clearFirstSquare(knights)) {
+            count += BitBoardUtils.count(AttackTables.knightAttacks(BitBoardUtils.firstSquare(knights)) & ~own);
+        }
+        for (long bishops = this.bitBoard.getPieces(base + 2); bishops != 0; bishops = BitBoardUtils.clearFirstSquare(bishops)) {
+            count += BitBoardUtils.count(MagicBitBoards.bishopAttacks(BitBoardUtils.firstSquare(bishops), occupied) & ~own);
+        }
+        for (long rooks = this.bitBoard.getPieces(base + 3); rooks != 0; rooks = BitBoardUtils.clearFirstSquare(rooks)) {
+            count += BitBoardUtils.count(MagicBitBoards.rookAttacks(BitBoardUtils.firstSquare(rooks), occupied) & ~own);
+        }
+        for (long queens = this.bitBoard.getPieces(base + 4); queens != 0; queens = BitBoardUtils.clearFirstSquare(queens)) {
+            count += BitBoardUtils.count(MagicBitBoards.queenAttacks(BitBoardUtils.firstSquare(queens), occupied) & ~own);
+        }
+        count += BitBoardUtils.count(AttackTables.kingAttacks(getKingSquare(alliance)) & ~own);
+        if (canCastleKingSide(alliance)) {
+            count++;
+        }
+        if (canCastleQueenSide(alliance)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Rebuilds an immutable {@link Board} for this position, for code that
+     * only understands the public board API.
+     */
+    public Board toBoard() {
+        final Board.Builder builder = new Board.Builder();
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final int index = this.mailbox[square];
+            if (index != NO_PIECE) {
+                builder.setPiece(createPiece(index, square, isFirstMove(index, square)));
+            }
+        }
+        if (this.enPassantSquare != NO_SQUARE) {
+            final int jumpedSquare = this.enPassantSquare - (this.sideToMove.getDirection() * 8);
+            builder.setEnPassantPawn((Pawn) createPiece(this.mailbox[jumpedSquare], jumpedSquare, false));
+        }
+        builder.setMoveMaker(this.sideToMove);
+        return builder.build();
+    }
+
+    private boolean canCastleKingSide(final Alliance alliance) {
+        return CastlingRights.canCastleKingSide(this.bitBoard, alliance, this.castlingRights);
+    }
+
+    private boolean canCastleQueenSide(final Alliance alliance) {
+        return CastlingRights.canCastleQueenSide(this.bitBoard, alliance, this.castlingRights);
+    }
+
+    private static void addMoves(final MoveList moves, final int from, final long targets, final long enemies) {
+        for (long captures = targets & enemies; captures != 0; captures = BitBoardUtils.clearFirstSquare(captures)) {
+            moves.add(EncodedMove.create(from, BitBoardUtils.firstSquare(captures), CAPTURE));
+        }
+        for (long quiets = targets & ~enemies; quiets != 0; quiets = BitBoardUtils.clearFirstSquare(quiets)) {
+            moves.add(EncodedMove.create(from, BitBoardUtils.firstSquare(quiets), QUIET_MOVE));
+        }
+    }
+
+    private static boolean isPromotionSquare(final Alliance alliance, final int square) {
+        return BitBoardUtils.isSet(AttackTables.promotionSquares(alliance), square);
+    }
+
+    private void addPiece(final int index, final int square) {
+        this.bitBoard.addPiece(index, square);
+        this.mailbox[square] = index;
+        this.zobristKey ^= Zobrist.pieceKey(index, square);
+    }
+
+    private void removePiece(final int index, final int square) {
+        this.bitBoard.removePiece(index, square);
+        this.mailbox[square] = NO_PIECE;
+        this.zobristKey ^= Zobrist.pieceKey(index, square);
+    }
+
+    private void movePiece(final int from, final int to) {
+        final int index = this.mailbox[from];
+        removePiece(index, from);
+        addPiece(index, to);
+    }
+
+    private void pushUndo(final int move, final int capturedPiece) {
+        if (this.undoSize == this.undoMoves.length) {
+            this.undoMoves = Arrays.copyOf(this.undoMoves, this.undoSize * 2);
+            this.undoStates = Arrays.copyOf(this.undoStates, this.undoSize * 2);
+            this.undoKeys = Arrays.copyOf(this.undoKeys, this.undoSize * 2);
+        }
+        this.undoMoves[this.undoSize] = move;
+        this.undoKeys[this.undoSize] = this.zobristKey;
+        this.undoStates[this.undoSize] = (capturedPiece + 1)
+                | (this.castlingRights << 4)
+                | ((this.enPassantSquare + 1) << 8);
+        this.undoSize++;
+    }
+
+    private boolean isFirstMove(final int index, final int square) {
+        final PieceType pieceType = BitBoard.pieceTypeOf(index);
+        final boolean isWhite = index < BLACK_OFFSET;
+        if (pieceType == PieceType.PAWN) {
+            return BitBoardUtils.isSet(isWhite ? BitBoardUtils.SECOND_RANK : BitBoardUtils.SEVENTH_RANK, square);
+        }
+        if (pieceType == PieceType.KING) {
+            final Alliance alliance = BitBoard.allianceOf(index);
+            return (this.castlingRights & (CastlingRights.kingSide(alliance) | CastlingRights.queenSide(alliance))) != 0;
+        }
+        if (pieceType == PieceType.ROOK) {
+            return (this.castlingRights & CastlingRights.lostFrom(square)) != 0;
+        }
+        return false;
+    }
+
+    private static Piece createPiece(final int index, final int square, final boolean isFirstMove) {
+        return PieceUtils.getPiece(BitBoard.pieceTypeOf(index), BitBoard.allianceOf(index), square, isFirstMove);
+    }
+}
@@ -1,6 +1,7 @@
 package com.chess.engine.board;
 
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.PieceUtils;
  
 import java.util.HashMap;
 import java.util.Map;
@@ -10,6 +11,7 @@ public abstract class chessTile {
     protected final int tileCoordinate;
 
     private static final Map<Integer, EmptyTile> EMPTY_TILES_CACHE = createAllPossibleEmptyTiles();
+    private static final OccupiedTile[] OCCUPIED_TILES_CACHE = createAllPossibleOccupiedTiles();
 
     private static Map<Integer, EmptyTile> createAllPossibleEmptyTiles() {
         final Map<Integer, EmptyTile> emptyTileMap = new HashMap<>();
@@ -21,8 +23,19 @@ public abstract class chessTile {
         return Map.copyOf(emptyTileMap);
     }
 
+    private static OccupiedTile[] createAllPossibleOccupiedTiles() {
+        final OccupiedTile[] occupiedTiles = new OccupiedTile[PieceUtils.NUM_PIECES];
+
+        for (int i = 0; i < PieceUtils.NUM_PIECES; i++) {
+            final Piece piece = PieceUtils.getPiece(i);
+            occupiedTiles[i] = new OccupiedTile(piece.getPiecePosition(), piece);
+        }
+
+        return occupiedTiles;
+    }
+
     public static chessTile createTile(final int tileCoordinate, final Piece piece) {
-        return piece != null ? new OccupiedTile(tileCoordinate, piece) : EMPTY_TILES_CACHE.get(tileCoordinate);
+        return piece != null ? OCCUPIED_TILES_CACHE[PieceUtils.index(piece)] : EMPTY_TILES_CACHE.get(tileCoordinate);
     }
 
     private chessTile(final int tileCoordinate) {
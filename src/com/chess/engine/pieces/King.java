@@ -1,21 +1,14 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.AttackTables;
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Move.MajorAttackMove;
-import com.chess.engine.board.Move.MajorMove;
-import com.chess.engine.board.chessTile;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 public class King extends Piece {
 
-    private final static int[] CANDIDATE_MOVE_COORDINATE = {-9, -8, -7, -1, 1, 7, 8, 9};
-
     public King(final int piecePosition, final Alliance pieceAlliance) {
         super(PieceType.KING, piecePosition, pieceAlliance, true);
     }
@@ -25,40 +18,13 @@ public class King extends Piece {
     }
 
     @Override
-    public Collection<Move> calculateLegalMoves(Board board) {
-
-        final List<Move> legalMoves = new ArrayList<>();
-
-        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATE) {
-            final int candidateDestinationCoordinate = this.piecePosition + currentCandidateOffset;
-
-            if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-
-                if (isFirstColumnExclusion(this.piecePosition, currentCandidateOffset)
-                        || isEighthColumnExclusion(this.piecePosition, currentCandidateOffset)) {
-                    continue;
-                }
-
-                final chessTile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-                if (!candidateDestinationTile.isTileOccupied()) {
-                    legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                } else {
-                    final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                    final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
-
-                    if (this.pieceAlliance != pieceAlliance) {
-                        legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
-                    }
-                }
-            }
-        }
-
-        return List.copyOf(legalMoves);
+    public Collection<Move> calculateLegalMoves(final Board board) {
+        return createMoves(board, AttackTables.kingAttacks(this.piecePosition));
     }
 
     @Override
     public King movePiece(final Move move) {
-        return new King(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false);
+        return (King) PieceUtils.getPiece(PieceType.KING, this.pieceAlliance, move.getDestinationCoordinate(), false);
     }
 
     @Override
@@ -66,13 +32,4 @@ public class King extends Piece {
         return Piece.PieceType.KING.toString();
     }
 
-    private static boolean isFirstColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition] && (candidateOffset == -9 || candidateOffset == -1
-                || candidateOffset == 7);
-    }
-
-    private static boolean isEighthColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.EIGTH_COLUMN[currentPosition] && (candidateOffset == -7 || candidateOffset == 1 || candidateOffset == 9);
-    }
-
 }
@@ -6,8 +6,10 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.AttackTables;
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.BitBoardUtils;
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Move.PawnAttackMove;
 import com.chess.engine.board.Move.PawnEnPassantAttackMove;
@@ -24,8 +26,6 @@ import java.util.List;
  */
 public class Pawn extends Piece {
 
-  private static final int[] CANDIDATE_MOVE_COORDINATE = { 8, 16, 7, 9 };
-
   public Pawn(final int piecePosition, final Alliance pieceAlliance) {
     super(PieceType.PAWN, piecePosition, pieceAlliance, true);
   }
@@ -41,173 +41,92 @@ public class Pawn extends Piece {
   @Override
   public Collection<Move> calculateLegalMoves(final Board board) {
     final List<Move> legalMoves = new ArrayList<>();
-    for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATE) {
-      final int candidateDestinationCoordinate =
-        this.piecePosition +
-        (this.getPieceAlliance().getDirection() * currentCandidateOffset);
+    final BitBoard bitBoard = board.getBitBoard();
 
-      if (!BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-        continue;
+    final long push =
+      AttackTables.pawnPushes(this.pieceAlliance, this.piecePosition) &
+      bitBoard.getEmpty();
+    if (push != 0) {
+      legalMoves.add(
+        promoteIfPossible(
+          new PawnMove(board, this, BitBoardUtils.firstSquare(push))
+        )
+      );
+      final long jump =
+        AttackTables.pawnJumps(this.pieceAlliance, this.piecePosition) &
+        bitBoard.getEmpty();
+      if (this.isFirstMove() && jump != 0) {
+        legalMoves.add(
+          new PawnJump(board, this, BitBoardUtils.firstSquare(jump))
+        );
       }
-      if (
-        currentCandidateOffset == 8 &&
-        !board.getTile(candidateDestinationCoordinate).isTileOccupied()
-      ) {
-        if (
-          this.pieceAlliance.isPawnPromotionSquare(
-              candidateDestinationCoordinate
-            )
-        ) {
-          legalMoves.add(
-            new PawnPromotion(
-              new PawnMove(board, this, candidateDestinationCoordinate)
-            )
-          );
-        } else {
-          legalMoves.add(
-            new PawnMove(board, this, candidateDestinationCoordinate)
-          );
-        }
-      } else if (
-        currentCandidateOffset == 16 &&
-        this.isFirstMove() &&
-        ((BoardUtils.SEVENTH_RANK[this.piecePosition] &&
-            this.getPieceAlliance().isBlack()) ||
-          (BoardUtils.SECOND_RANK[this.piecePosition] &&
-            this.getPieceAlliance().isWhite()))
-      ) {
-        final int behindCandidateDestinationCoordinate =
-          this.piecePosition + (this.getPieceAlliance().getDirection() * 8);
-        if (
-          !board
-            .getTile(behindCandidateDestinationCoordinate)
-            .isTileOccupied() &&
-          !board.getTile(candidateDestinationCoordinate).isTileOccupied()
-        ) {
-          legalMoves.add(
-            new PawnJump(board, this, candidateDestinationCoordinate)
-          );
-        }
-      } else if (
-        currentCandidateOffset == 7 &&
-        !((BoardUtils.EIGTH_COLUMN[this.piecePosition] &&
-            this.pieceAlliance.isWhite()) ||
-          (BoardUtils.FIRST_COLUMN[this.piecePosition] &&
-            this.pieceAlliance.isBlack()))
-      ) {
-        if (board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-          final Piece pieceOnCandidate = board
-            .getTile(candidateDestinationCoordinate)
-            .getPiece();
+    }
 
-          if (this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
-            if (this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-              legalMoves.add(
-                new PawnPromotion(
-                  new PawnAttackMove(
-                    board,
-                    this,
-                    candidateDestinationCoordinate,
-                    pieceOnCandidate
-                  )
-                )
-              );
-            } else {
-              legalMoves.add(
-                new PawnAttackMove(
-                  board,
-                  this,
-                  candidateDestinationCoordinate,
-                  pieceOnCandidate
-                )
-              );
-            }
-          }
-        } else if (board.getEnPassantPawn() != null) {
-          if (
-            board.getEnPassantPawn().getPiecePosition() ==
-            (this.piecePosition + (this.pieceAlliance.getOppositeDirection()))
-          ) {
-            final Piece pieceOnCandidate = board.getEnPassantPawn();
-            if (this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
-              legalMoves.add(
-                new PawnEnPassantAttackMove(
-                  board,
-                  this,
-                  candidateDestinationCoordinate,
-                  pieceOnCandidate
-                )
-              );
-            }
-          }
-        }
-      } else if (
-        currentCandidateOffset == 9 &&
-        !((BoardUtils.FIRST_COLUMN[this.piecePosition] &&
-            this.pieceAlliance.isWhite()) ||
-          (BoardUtils.EIGTH_COLUMN[this.piecePosition] &&
-            this.pieceAlliance.isBlack()))
-      ) {
-        if (board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-          final Piece pieceOnCandidate = board
-            .getTile(candidateDestinationCoordinate)
-            .getPiece();
+    final long attacks = AttackTables.pawnAttacks(
+      this.pieceAlliance,
+      this.piecePosition
+    );
+    for (
+      long captures =
+        attacks & bitBoard.getOccupancy(this.pieceAlliance.getOpponent());
+      captures != 0;
+      captures = BitBoardUtils.clearFirstSquare(captures)
+    ) {
+      final int candidateDestinationCoordinate = BitBoardUtils.firstSquare(
+        captures
+      );
+      legalMoves.add(
+        promoteIfPossible(
+          new PawnAttackMove(
+            board,
+            this,
+            candidateDestinationCoordinate,
+            board.getPiece(candidateDestinationCoordinate)
+          )
+        )
+      );
+    }
 
-          if (this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
-            if (
-              this.pieceAlliance.isPawnPromotionSquare(
-                  candidateDestinationCoordinate
-                )
-            ) {
-              legalMoves.add(
-                new PawnPromotion(
-                  new PawnAttackMove(
-                    board,
-                    this,
-                    candidateDestinationCoordinate,
-                    pieceOnCandidate
-                  )
-                )
-              );
-            } else {
-              legalMoves.add(
-                new PawnAttackMove(
-                  board,
-                  this,
-                  candidateDestinationCoordinate,
-                  pieceOnCandidate
-                )
-              );
-            }
-          }
-        } else if (board.getEnPassantPawn() != null) {
-          if (
-            board.getEnPassantPawn().getPiecePosition() ==
-            (this.piecePosition - (this.pieceAlliance.getOppositeDirection()))
-          ) {
-            final Piece pieceOnCandidate = board.getEnPassantPawn();
-            if (this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
-              legalMoves.add(
-                new PawnEnPassantAttackMove(
-                  board,
-                  this,
-                  candidateDestinationCoordinate,
-                  pieceOnCandidate
-                )
-              );
-            }
-          }
-        }
+    final Pawn enPassantPawn = board.getEnPassantPawn();
+    if (
+      enPassantPawn != null &&
+      enPassantPawn.getPieceAlliance() != this.pieceAlliance
+    ) {
+      // the capturing pawn lands on the square the jumping pawn skipped
+      final int enPassantCoordinate =
+        enPassantPawn.getPiecePosition() +
+        (this.pieceAlliance.getDirection() * 8);
+      if (
+        BitBoardUtils.isSet(attacks & bitBoard.getEmpty(), enPassantCoordinate)
+      ) {
+        legalMoves.add(
+          new PawnEnPassantAttackMove(
+            board,
+            this,
+            enPassantCoordinate,
+            enPassantPawn
+          )
+        );
       }
     }
     return List.copyOf(legalMoves);
   }
 
+  private Move promoteIfPossible(final Move move) {
+    return BitBoardUtils.isSet(
+        AttackTables.promotionSquares(this.pieceAlliance),
+        move.getDestinationCoordinate()
+      )
+      ? new PawnPromotion(move)
+      : move;
+  }
+
   @Override
   public Pawn movePiece(final Move move) {
-    return new Pawn(
+    return (Pawn) PieceUtils.getPiece(
+      PieceType.PAWN,
+      this.pieceAlliance,
       move.getDestinationCoordinate(),
-      move.getMovedPiece().getPieceAlliance(),
       false
     );
   }
@@ -218,6 +137,11 @@ public class Pawn extends Piece {
   }
 
   public Piece getPromotionPiece() {
-    return new Queen(this.piecePosition, this.pieceAlliance, false);
+    return PieceUtils.getPiece(
+      PieceType.QUEEN,
+      this.pieceAlliance,
+      this.piecePosition,
+      false
+    );
   }
 }
@@ -1,9 +1,13 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoardUtils;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.MajorAttackMove;
+import com.chess.engine.board.Move.MajorMove;
 import java.util.Collection;
+import java.util.List;
 
 public abstract class Piece {
 
@@ -72,6 +76,25 @@ public abstract class Piece {
 
     public abstract Collection<Move> calculateLegalMoves(final Board board);
 
+    /**
+     * Splits an attack mask into captures of enemy pieces followed by quiet
+     * moves to empty squares. Squares held by friendly pieces are dropped.
+     */
+    protected Collection<Move> createMoves(final Board board, final long attacks) {
+        final long captures = attacks & board.getBitBoard().getOccupancy(this.pieceAlliance.getOpponent());
+        final long quietMoves = attacks & board.getBitBoard().getEmpty();
+        final Move[] moves = new Move[BitBoardUtils.count(captures) + BitBoardUtils.count(quietMoves)];
+        int i = 0;
+        for (long targets = captures; targets != 0; targets = BitBoardUtils.clearFirstSquare(targets)) {
+            final int destination = BitBoardUtils.firstSquare(targets);
+            moves[i++] = new MajorAttackMove(board, this, destination, board.getPiece(destination));
+        }
+        for (long targets = quietMoves; targets != 0; targets = BitBoardUtils.clearFirstSquare(targets)) {
+            moves[i++] = new MajorMove(board, this, BitBoardUtils.firstSquare(targets));
+        }
+        return List.of(moves);
+    }
+
     public abstract Piece movePiece(Move move);
 
     public enum PieceType {
@@ -0,0 +1,91 @@
+package com.chess.engine.pieces;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Canonical piece instances. A piece is fully described by its type,
+ * alliance, tile and first-move flag, so every possible piece is built once
+ * when this class loads and looked up from then on. Boards only ever hold
+ * these instances, which lets moves and tiles compare pieces by identity.
+ */
+public final class PieceUtils {
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final Alliance[] ALLIANCES = Alliance.values();
+
+    public static final int NUM_PIECES = PIECE_TYPES.length * ALLIANCES.length * 2 * BoardUtils.NUM_TILES;
+
+    private static final Piece[] ALL_PIECES_CACHE = createAllPossiblePieces();
+
+    private PieceUtils() {
+        throw new RuntimeException("You cannot instanciate me!");
+    }
+
+    public static Piece getPiece(final PieceType pieceType,
+                                 final Alliance alliance,
+                                 final int piecePosition,
+                                 final boolean isFirstMove) {
+        return ALL_PIECES_CACHE[index(pieceType, alliance, piecePosition, isFirstMove)];
+    }
+
+    /**
+     * The piece with the given {@link #index(Piece)}.
+     */
+    public static Piece getPiece(final int index) {
+        return ALL_PIECES_CACHE[index];
+    }
+
+    /**
+     * The canonical instance equal to the given piece.
+     */
+    public static Piece intern(final Piece piece) {
+        return ALL_PIECES_CACHE[index(piece)];
+    }
+
+    public static int index(final Piece piece) {
+        return index(piece.getPieceType(), piece.getPieceAlliance(), piece.getPiecePosition(), piece.isFirstMove());
+    }
+
+    private static int index(final PieceType pieceType,
+                             final Alliance alliance,
+                             final int piecePosition,
+                             final boolean isFirstMove) {
+        return (((pieceType.ordinal() * ALLIANCES.length + alliance.ordinal()) * 2 + (isFirstMove ? 1 : 0))
+                * BoardUtils.NUM_TILES) + piecePosition;
+    }
+
+    private static Piece[] createAllPossiblePieces() {
+        final Piece[] pieces = new Piece[NUM_PIECES];
+        for (final PieceType pieceType : PIECE_TYPES) {
+            for (final Alliance alliance : ALLIANCES) {
+                for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+                    pieces[index(pieceType, alliance, position, false)] = createPiece(pieceType, alliance, position, false);
+                    pieces[index(pieceType, alliance, position, true)] = createPiece(pieceType, alliance, position, true);
+                }
+            }
+        }
+        return pieces;
+    }
+
+    private static Piece createPiece(final PieceType pieceType,
+                                     final Alliance alliance,
+                                     final int piecePosition,
+                                     final boolean isFirstMove) {
+        switch (pieceType) {
+            case PAWN:
+                return new Pawn(piecePosition, alliance, isFirstMove);
+            case KNIGHT:
+                return new Knight(piecePosition, alliance, isFirstMove);
+            case BISHOP:
+                return new Bishop(piecePosition, alliance, isFirstMove);
+            case ROOK:
+                return new Rook(piecePosition, alliance, isFirstMove);
+            case QUEEN:
+                return new Queen(piecePosition, alliance, isFirstMove);
+            default:
+                return new King(piecePosition, alliance, isFirstMove);
+        }
+    }
+}
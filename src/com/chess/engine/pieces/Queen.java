@@ -2,20 +2,13 @@ package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MagicBitBoards;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Move.MajorAttackMove;
-import com.chess.engine.board.Move.MajorMove;
-import com.chess.engine.board.chessTile;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 public class Queen extends Piece {
 
-    private final static int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-9, -8, -7, -1, 1, 7, 8, 9};
-
     public Queen(final int piecePosition, final Alliance pieceAlliance) {
         super(PieceType.QUEEN, piecePosition, pieceAlliance, true);
     }
@@ -26,48 +19,12 @@ public class Queen extends Piece {
 
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-
-        for (final int candidateCoordinateOffset : CANDIDATE_MOVE_VECTOR_COORDINATES) {
-            int candidateDestinationCoordinate = this.piecePosition;
-
-            // iterate outwards in the given direction
-            while (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-
-                // IMPORTANT: check column exclusions on the current coordinate BEFORE moving,
-                // otherwise you check the destination square and allow wrap-around moves.
-                if (isFirstColumnExclusion(candidateDestinationCoordinate, candidateCoordinateOffset)
-                        || isEigthColumnExclusion(candidateDestinationCoordinate, candidateCoordinateOffset)) {
-                    break;
-                }
-
-                candidateDestinationCoordinate += candidateCoordinateOffset;
-
-                if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-
-                    final chessTile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                        final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
-
-                        if (this.pieceAlliance != pieceAlliance) {
-                            legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
-                        }
-                        break;
-                    }
-                }
-            }
-
-        }
-        return List.copyOf(legalMoves);
+        return createMoves(board, MagicBitBoards.queenAttacks(this.piecePosition, board.getBitBoard().getOccupied()));
     }
 
     @Override
     public Queen movePiece(final Move move) {
-        return new Queen(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false);
+        return (Queen) PieceUtils.getPiece(PieceType.QUEEN, this.pieceAlliance, move.getDestinationCoordinate(), false);
     }
 
     @Override
@@ -75,12 +32,4 @@ public class Queen extends Piece {
         return Piece.PieceType.QUEEN.toString();
     }
 
-    private static boolean isFirstColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition] && (candidateOffset == -1 || candidateOffset == -9 || candidateOffset == 7);
-    }
-
-    private static boolean isEigthColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.EIGTH_COLUMN[currentPosition] && (candidateOffset == -7 || candidateOffset == 1 || candidateOffset == 9);
-    }
-
 }
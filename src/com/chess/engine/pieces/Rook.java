@@ -2,20 +2,13 @@ package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.MagicBitBoards;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Move.MajorAttackMove;
-import com.chess.engine.board.Move.MajorMove;
-import com.chess.engine.board.chessTile;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 public class Rook extends Piece {
 
-    private final static int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-8, -1, 1, 8};
-
     public Rook(final int piecePosition, final Alliance pieceAlliance) {
         super(PieceType.ROOK, piecePosition, pieceAlliance, true);
     }
@@ -26,47 +19,12 @@ public class Rook extends Piece {
 
     @Override
     public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>();
-
-        for (final int candidateCoordinateOffset : CANDIDATE_MOVE_VECTOR_COORDINATES) {
-            int candidateDestinationCoordinate = this.piecePosition;
-
-            while (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-
-                // check column exclusions on the current square BEFORE stepping
-                if (isFirstColumnExclusion(candidateDestinationCoordinate, candidateCoordinateOffset)
-                        || isEigthColumnExclusion(candidateDestinationCoordinate, candidateCoordinateOffset)) {
-                    break;
-                }
-
-                candidateDestinationCoordinate += candidateCoordinateOffset;
-
-                if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-
-                    final chessTile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
-
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                        final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
-
-                        if (this.pieceAlliance != pieceAlliance) {
-                            legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
-                        }
-                        break;
-                    }
-
-                }
-            }
-
-        }
-        return List.copyOf(legalMoves);
+        return createMoves(board, MagicBitBoards.rookAttacks(this.piecePosition, board.getBitBoard().getOccupied()));
     }
 
     @Override
     public Rook movePiece(final Move move) {
-        return new Rook(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false);
+        return (Rook) PieceUtils.getPiece(PieceType.ROOK, this.pieceAlliance, move.getDestinationCoordinate(), false);
     }
 
     @Override
@@ -74,12 +32,4 @@ public class Rook extends Piece {
         return Piece.PieceType.ROOK.toString();
     }
 
-    private static boolean isFirstColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition] && (candidateOffset == -1);
-    }
-
-    private static boolean isEigthColumnExclusion(final int currentPosition, final int candidateOffset) {
-        return BoardUtils.EIGTH_COLUMN[currentPosition] && (candidateOffset == 1);
-    }
-
 }
@@ -0,0 +1,565 @@
+package com.chess.engine.player.AI;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.BitBoardUtils;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.EncodedMove;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.tablebase.Tablebase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Negamax search with alpha-beta pruning. Every node scores positions for the
+ * side to move and cuts off as soon as a move proves the opponent would avoid
+ * the line. Scores are fail-soft: a node that fails returns the best bound it
+ * found rather than the window edge.
+ *
+ * Given a {@link TranspositionTable}, nodes first look up earlier results for
+ * the same position and store their own on the way out. Moves inside the tree
+ * come from a {@link MovePicker}, which tries the likely refutations first so
+ * more of the tree is cut off. The {@link SearchFeature}s switch on forward
+ * pruning on top of that. Every search counts its nodes, cutoffs and table
+ * hits in {@link SearchStats}. Given a {@link Tablebase}, endings it holds are
+ * scored exactly instead of searched.
+ *
+ * Without a table or features it picks the same move as {@link MinMax} at equal depth.
+ * MinMax keeps the last of several equally good root moves, so the root is
+ * walked in reverse and a move only replaces the best one when it is strictly
+ * better.
+ */
+public class AlphaBeta implements MoveStrategy {
+
+  // symmetric bounds, so negating a window never overflows
+  static final int INFINITY = Integer.MAX_VALUE;
+  // how many captures deep the quiescence search may go
+  static final int MAX_QUIESCENCE_PLY = 32;
+  // a capture is skipped when even this much on top of what it wins cannot raise alpha
+  private static final int DELTA_MARGIN = 200;
+  // no static score comes near this; anything beyond it is a forced mate
+  static final int MATE_THRESHOLD = 9000;
+  // a tablebase win ranks above any static score, and a shorter one higher,
+  // but below a checkmate the evaluator scores itself, which is 10000 and up
+  // in StandardBoardEvaluator
+  private static final int TABLEBASE_MATE = MATE_THRESHOLD + 500;
+  private static final int NO_TABLEBASE_SCORE = Integer.MIN_VALUE;
+
+  private static final int NULL_MOVE_MIN_DEPTH = 3;
+  // with no more non-pawn material than a rook, a null move cutoff is verified
+  private static final int ZUGZWANG_MATERIAL = PieceType.ROOK.getPieceValue();
+  private static final int REVERSE_FUTILITY_DEPTH = 3;
+  private static final int REVERSE_FUTILITY_MARGIN = 150;
+  private static final int FUTILITY_DEPTH = 2;
+  private static final int FUTILITY_MARGIN = 200;
+  private static final int RAZORING_DEPTH = 2;
+  private static final int RAZORING_MARGIN = 300;
+  private static final int LATE_MOVE_MIN_DEPTH = 3;
+  private static final int LATE_MOVE_MIN_INDEX = 3;
+  // reductions grow with the logarithm of both the depth and the move's place in the order
+  private static final int[][] LATE_MOVE_REDUCTIONS = createLateMoveReductions();
+  private static final PieceType[] NON_PAWN_TYPES = {PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN};
+
+  protected final BoardEvaluator boardEvaluator;
+  protected final int searchDepth;
+  protected final TranspositionTable transpositionTable;
+  protected final MoveHistory moveHistory;
+  protected final Set<SearchFeature> searchFeatures;
+  protected final SearchStats searchStats = new SearchStats();
+  // the searching thread's last copy of its counters, for everyone else
+  private volatile SearchStats publishedStats = new SearchStats();
+  private volatile boolean isStatsEnabled = true;
+  // isStatsEnabled as the running search read it when it started
+  protected boolean isCountingStats = true;
+  protected SearchListener searchListener;
+  protected Tablebase tablebase;
+  private final MovePicker[] quiescencePickers;
+  private boolean isVerifyingNullMove;
+  // the score of the best move the last call to searchRoot found
+  protected int rootScore;
+
+  public AlphaBeta(final int searchDepth) {
+    this(new StandardBoardEvaluator(), searchDepth);
+  }
+
+  public AlphaBeta(final BoardEvaluator boardEvaluator, final int searchDepth) {
+    this(boardEvaluator, searchDepth, null);
+  }
+
+  public AlphaBeta(final BoardEvaluator boardEvaluator,
+                   final int searchDepth,
+                   final TranspositionTable transpositionTable) {
+    this(boardEvaluator, searchDepth, transpositionTable, SearchFeature.none());
+  }
+
+  public AlphaBeta(final BoardEvaluator boardEvaluator,
+                   final int searchDepth,
+                   final TranspositionTable transpositionTable,
+                   final Set<SearchFeature> searchFeatures) {
+    this.boardEvaluator = boardEvaluator;
+    this.searchDepth = searchDepth;
+    this.transpositionTable = transpositionTable;
+    this.searchFeatures = searchFeatures.isEmpty()
+        ? EnumSet.noneOf(SearchFeature.class)
+        : EnumSet.copyOf(searchFeatures);
+    this.moveHistory = new MoveHistory();
+    this.quiescencePickers = new MovePicker[MAX_QUIESCENCE_PLY];
+    for (int i = 0; i < this.quiescencePickers.length; i++) {
+      this.quiescencePickers[i] = new MovePicker(this.moveHistory);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "AlphaBeta";
+  }
+
+  @Override
+  public Move execute(final Board board) {
+    final long startTime = System.currentTimeMillis();
+    resetStats();
+    final List<Move> rootMoves = new ArrayList<>(board.currentPlayer().getLegalMoves());
+    Collections.reverse(rootMoves);
+    this.moveHistory.clear();
+    final SearchBoard searchBoard = new SearchBoard(board);
+    final Move bestMove = searchRoot(searchBoard, rootMoves, createMovePickers(this.searchDepth), this.searchDepth);
+    final long elapsedMillis = System.currentTimeMillis() - startTime;
+    this.searchStats.completeIteration(this.searchDepth, this.rootScore, this.searchStats.nodes, elapsedMillis);
+    finishSearch(elapsedMillis);
+    return bestMove;
+  }
+
+  @Override
+  public SearchStats getSearchStats() {
+    return this.publishedStats;
+  }
+
+  @Override
+  public void setSearchListener(final SearchListener searchListener) {
+    this.searchListener = searchListener;
+  }
+
+  @Override
+  public void setStatsEnabled(final boolean isEnabled) {
+    this.isStatsEnabled = isEnabled;
+  }
+
+  /**
+   * Looks up positions with few enough pieces in the tablebase from now on,
+   * or stops when it is null.
+   */
+  public void setTablebase(final Tablebase tablebase) {
+    this.tablebase = tablebase;
+  }
+
+  /**
+   * Records the total time of the search and reports it to the listener.
+   */
+  protected void finishSearch(final long elapsedMillis) {
+    this.searchStats.elapsedMillis = elapsedMillis;
+    final SearchStats stats = publishStats();
+    if (this.searchListener != null) {
+      this.searchListener.onSearchFinished(stats);
+    }
+  }
+
+  /**
+   * Clears the counters and decides whether this search counts more than
+   * its nodes.
+   */
+  protected void resetStats() {
+    this.searchStats.reset();
+    this.isCountingStats = this.isStatsEnabled;
+    publishStats();
+  }
+
+  /**
+   * Copies the counters for other threads to read and returns the copy.
+   */
+  protected SearchStats publishStats() {
+    final SearchStats stats = this.searchStats.snapshot();
+    this.publishedStats = stats;
+    return stats;
+  }
+
+  /**
+   * Searches the root moves in the given order and returns the first one
+   * with the highest score, or null when none of them is legal.
+   */
+  protected Move searchRoot(final SearchBoard searchBoard,
+                            final List<Move> rootMoves,
+                            final MovePicker[] movePickers,
+                            final int depth) {
+    return searchRoot(searchBoard, rootMoves, movePickers, depth, -INFINITY, INFINITY);
+  }
+
+  /**
+   * Like {@link #searchRoot(SearchBoard, List, MovePicker[], int)}, inside
+   * the window (alpha, beta). The score of the returned move is left in
+   * {@link #rootScore}; when it is outside the window it is only a bound.
+   */
+  protected Move searchRoot(final SearchBoard searchBoard,
+                            final List<Move> rootMoves,
+                            final MovePicker[] movePickers,
+                            final int depth,
+                            int alpha,
+                            final int beta) {
+    Move bestMove = null;
+    int bestValue = -INFINITY;
+    for (final Move move : rootMoves) {
+      if (searchBoard.makeMove(EncodedMove.encode(move))) {
+        int currentValue;
+        if (bestMove != null && isEnabled(SearchFeature.PRINCIPAL_VARIATION)) {
+          currentValue = -search(searchBoard, movePickers, depth - 1, -alpha - 1, -alpha);
+          if (currentValue > alpha && currentValue < beta) {
+            currentValue = -search(searchBoard, movePickers, depth - 1, -beta, -alpha);
+          }
+        } else {
+          currentValue = -search(searchBoard, movePickers, depth - 1, -beta, -alpha);
+        }
+        searchBoard.unmakeMove();
+        if (currentValue > bestValue || bestMove == null) {
+          bestValue = currentValue;
+          bestMove = move;
+          if (bestValue > alpha) {
+            alpha = bestValue;
+            if (alpha >= beta) {
+              break;
+            }
+          }
+        }
+      }
+    }
+    this.rootScore = bestValue;
+    return bestMove;
+  }
+
+  /**
+   * The score of the position for the side to move, searched to the given
+   * depth inside the window (alpha, beta).
+   */
+  protected int search(final SearchBoard board,
+                       final MovePicker[] movePickers,
+                       final int depth,
+                       int alpha,
+                       final int beta) {
+    this.searchStats.nodes++;
+    if (this.tablebase != null) {
+      final int tablebaseScore = probeTablebase(board);
+      if (tablebaseScore != NO_TABLEBASE_SCORE) {
+        return tablebaseScore;
+      }
+    }
+    if (depth == 0) {
+      return evaluate(board, depth);
+    }
+    final long key = board.getZobristKey();
+    int hashMove = EncodedMove.NO_MOVE;
+    if (this.transpositionTable != null) {
+      final long entry = this.transpositionTable.probe(key);
+      if (this.isCountingStats) {
+        this.searchStats.tableProbes++;
+        if (entry != TranspositionTable.NO_ENTRY) {
+          this.searchStats.tableHits++;
+        }
+      }
+      if (entry != TranspositionTable.NO_ENTRY) {
+        if (TranspositionTable.getDepth(entry) >= depth) {
+          final int score = TranspositionTable.getScore(entry);
+          final int bound = TranspositionTable.getBound(entry);
+          if (bound == TranspositionTable.EXACT
+              || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+              || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+            return score;
+          }
+        }
+        hashMove = TranspositionTable.getMove(entry);
+      }
+    }
+    final MovePicker movePicker = movePickers[depth];
+    if (movePicker.reset(board, hashMove) == 0) {
+      return evaluate(board, depth);
+    }
+
+    // the static score only steers pruning, which stays away from checks and
+    // from bounds that are mate scores or still infinite
+    final boolean inCheck = board.isInCheck();
+    boolean isFutile = false;
+    int futilityValue = -INFINITY;
+    final boolean canPruneHigh = !isMateScore(beta);
+    final boolean canPruneLow = !isMateScore(alpha);
+    if (!this.searchFeatures.isEmpty() && (canPruneHigh || canPruneLow) && !inCheck) {
+      final int staticValue = evaluate(board, depth);
+      if (canPruneHigh
+          && isEnabled(SearchFeature.REVERSE_FUTILITY)
+          && depth <= REVERSE_FUTILITY_DEPTH
+          && staticValue - REVERSE_FUTILITY_MARGIN * depth >= beta) {
+        return staticValue - REVERSE_FUTILITY_MARGIN * depth;
+      }
+      if (canPruneLow
+          && isEnabled(SearchFeature.RAZORING)
+          && depth <= RAZORING_DEPTH
+          && staticValue + RAZORING_MARGIN * depth <= alpha) {
+        final int quiescenceValue = quiescence(board, 0, alpha, beta);
+        if (quiescenceValue <= alpha) {
+          return quiescenceValue;
+        }
+      }
+      if (canPruneHigh
+          && isEnabled(SearchFeature.NULL_MOVE)
+          && depth >= NULL_MOVE_MIN_DEPTH
+          && staticValue >= beta
+          && !this.isVerifyingNullMove
+          && !board.isAfterNullMove()) {
+        final int nonPawnMaterial = nonPawnMaterial(board, board.getSideToMove());
+        if (nonPawnMaterial > 0 && nullMoveFailsHigh(board, movePickers, depth, beta, nonPawnMaterial)) {
+          return beta;
+        }
+      }
+      if (canPruneLow && isEnabled(SearchFeature.FUTILITY) && depth <= FUTILITY_DEPTH) {
+        futilityValue = staticValue + FUTILITY_MARGIN * depth;
+        isFutile = futilityValue <= alpha;
+      }
+    }
+
+    final int originalAlpha = alpha;
+    int bestValue = -INFINITY;
+    int bestMove = EncodedMove.NO_MOVE;
+    int movesSearched = 0;
+    int move;
+    while ((move = movePicker.nextMove()) != EncodedMove.NO_MOVE) {
+      board.makeMove(move);
+      final boolean isQuiet = MovePicker.isQuiet(move) && !board.isInCheck();
+      // a quiet move that gives no check cannot lift a futile node to alpha
+      if (isFutile && bestMove != EncodedMove.NO_MOVE && isQuiet) {
+        board.unmakeMove();
+        bestValue = Math.max(bestValue, futilityValue);
+        continue;
+      }
+      int currentValue;
+      final int reduction = isQuiet && !inCheck ? lateMoveReduction(depth, movesSearched) : 0;
+      if (movesSearched > 0 && (reduction > 0 || isEnabled(SearchFeature.PRINCIPAL_VARIATION))) {
+        currentValue = -search(board, movePickers, depth - 1 - reduction, -alpha - 1, -alpha);
+        if (currentValue > alpha && reduction > 0) {
+          currentValue = -search(board, movePickers, depth - 1, -alpha - 1, -alpha);
+        }
+        if (currentValue > alpha && currentValue < beta) {
+          currentValue = -search(board, movePickers, depth - 1, -beta, -alpha);
+        }
+      } else {
+        currentValue = -search(board, movePickers, depth - 1, -beta, -alpha);
+      }
+      movesSearched++;
+      board.unmakeMove();
+      if (currentValue > bestValue) {
+        bestValue = currentValue;
+        bestMove = move;
+        if (bestValue > alpha) {
+          alpha = bestValue;
+          if (alpha >= beta) {
+            if (this.isCountingStats) {
+              this.searchStats.betaCutoffs++;
+              if (movesSearched == 1) {
+                this.searchStats.firstMoveCutoffs++;
+              }
+            }
+            if (MovePicker.isQuiet(move)) {
+              this.moveHistory.recordCutoff(board.getSideToMove(), move, board.getPly(), depth);
+            }
+            break;
+          }
+        }
+      }
+    }
+    if (this.transpositionTable != null && !isStopped()) {
+      final int bound = bestValue <= originalAlpha
+          ? TranspositionTable.UPPER_BOUND
+          : bestValue >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+      this.transpositionTable.store(key, bestMove, bestValue, depth, bound);
+    }
+    return bestValue;
+  }
+
+  /**
+   * Passes the turn and searches the opponent's reply with a reduced depth
+   * and a null window at beta. When the opponent still cannot get below beta
+   * the node is almost surely a cutoff. With little material left, where
+   * passing may be the best move there is, that is confirmed by a reduced
+   * search of the real moves without any null moves.
+   */
+  private boolean nullMoveFailsHigh(final SearchBoard board,
+                                    final MovePicker[] movePickers,
+                                    final int depth,
+                                    final int beta,
+                                    final int nonPawnMaterial) {
+    final int reduction = depth >= 6 ? 3 : 2;
+    board.makeNullMove();
+    final int nullValue = -search(board, movePickers, Math.max(depth - 1 - reduction, 0), -beta, -beta + 1);
+    board.unmakeNullMove();
+    if (nullValue < beta) {
+      return false;
+    }
+    if (nonPawnMaterial > ZUGZWANG_MATERIAL) {
+      return true;
+    }
+    this.isVerifyingNullMove = true;
+    final int verifiedValue = search(board, movePickers, depth - reduction, beta - 1, beta);
+    this.isVerifyingNullMove = false;
+    return verifiedValue >= beta;
+  }
+
+  /**
+   * Searches only captures and promotions until the position is quiet, so a
+   * leaf is never scored in the middle of an exchange. The side to move may
+   * stand pat on the static score instead of capturing, and captures that
+   * cannot lift that score to alpha even with a margin are not tried. A side
+   * in check has no such choice and searches every evasion.
+   *
+   * Plain {@link #search} scores its leaves directly; strategies that want
+   * this call it at the horizon.
+   */
+  protected int quiescence(final SearchBoard board, final int ply, int alpha, final int beta) {
+    this.searchStats.nodes++;
+    if (this.isCountingStats) {
+      this.searchStats.quiescenceNodes++;
+    }
+    if (this.tablebase != null) {
+      final int tablebaseScore = probeTablebase(board);
+      if (tablebaseScore != NO_TABLEBASE_SCORE) {
+        return tablebaseScore;
+      }
+    }
+    if (ply >= MAX_QUIESCENCE_PLY) {
+      return evaluate(board, 0);
+    }
+    final boolean inCheck = board.isInCheck();
+    final MovePicker movePicker = this.quiescencePickers[ply];
+    final int standPat;
+    int bestValue;
+    if (inCheck) {
+      if (movePicker.reset(board, EncodedMove.NO_MOVE) == 0) {
+        return evaluate(board, 0);
+      }
+      standPat = -INFINITY;
+      bestValue = -INFINITY;
+    } else {
+      standPat = evaluate(board, 0);
+      if (standPat >= beta) {
+        return standPat;
+      }
+      if (standPat > alpha) {
+        alpha = standPat;
+      }
+      bestValue = standPat;
+      movePicker.resetCaptures(board);
+    }
+
+    int move;
+    while ((move = movePicker.nextMove()) != EncodedMove.NO_MOVE) {
+      if (!inCheck && standPat + MovePicker.materialGain(board, move) + DELTA_MARGIN <= alpha) {
+        continue;
+      }
+      board.makeMove(move);
+      final int currentValue = -quiescence(board, ply + 1, -beta, -alpha);
+      board.unmakeMove();
+      if (currentValue > bestValue) {
+        bestValue = currentValue;
+        if (bestValue > alpha) {
+          alpha = bestValue;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    return bestValue;
+  }
+
+  /**
+   * Whether the current search has been cut short. Scores found after that
+   * point are meaningless and must not be cached.
+   */
+  protected boolean isStopped() {
+    return false;
+  }
+
+  protected boolean isEnabled(final SearchFeature searchFeature) {
+    return this.searchFeatures.contains(searchFeature);
+  }
+
+  private int lateMoveReduction(final int depth, final int moveIndex) {
+    if (!isEnabled(SearchFeature.LATE_MOVE_REDUCTIONS)
+        || depth < LATE_MOVE_MIN_DEPTH
+        || moveIndex < LATE_MOVE_MIN_INDEX) {
+      return 0;
+    }
+    // never reduce straight into the quiescence search
+    return Math.min(LATE_MOVE_REDUCTIONS[Math.min(depth, SearchLimits.MAX_DEPTH - 1)][moveIndex], depth - 2);
+  }
+
+  private static int[][] createLateMoveReductions() {
+    final int[][] reductions = new int[SearchLimits.MAX_DEPTH][MoveList.MAX_MOVES];
+    for (int depth = 1; depth < reductions.length; depth++) {
+      for (int moveIndex = 1; moveIndex < reductions[depth].length; moveIndex++) {
+        reductions[depth][moveIndex] = (int) (0.75 + Math.log(depth) * Math.log(moveIndex) / 2.25);
+      }
+    }
+    return reductions;
+  }
+
+  // the exact score of an ending in the tablebase, or NO_TABLEBASE_SCORE; the
+  // plies count from the probed position rather than from the root, so wins
+  // reached along lines of different lengths only compare roughly
+  private int probeTablebase(final SearchBoard board) {
+    final int value = this.tablebase.probe(board);
+    if (value == Tablebase.UNKNOWN || value == Tablebase.ILLEGAL) {
+      return NO_TABLEBASE_SCORE;
+    }
+    if (this.isCountingStats) {
+      this.searchStats.tablebaseHits++;
+    }
+    if (Tablebase.isWin(value)) {
+      return TABLEBASE_MATE - Tablebase.getPlies(value);
+    }
+    return Tablebase.isLoss(value) ? -TABLEBASE_MATE + Tablebase.getPlies(value) : 0;
+  }
+
+  static boolean isMateScore(final int score) {
+    return score >= MATE_THRESHOLD || score <= -MATE_THRESHOLD;
+  }
+
+  private static int nonPawnMaterial(final SearchBoard board, final Alliance alliance) {
+    final BitBoard bitBoard = board.getBitBoard();
+    int material = 0;
+    for (final PieceType pieceType : NON_PAWN_TYPES) {
+      material += BitBoardUtils.count(bitBoard.getPieces(alliance, pieceType)) * pieceType.getPieceValue();
+    }
+    return material;
+  }
+
+  /**
+   * The evaluator scores for white; negamax wants the side to move.
+   */
+  protected int evaluate(final SearchBoard board, final int depth) {
+    final int score = this.boardEvaluator.evaluate(board, depth);
+    return board.getSideToMove().isWhite() ? score : -score;
+  }
+
+  /**
+   * One picker per remaining depth, all sharing this strategy's history.
+   */
+  MovePicker[] createMovePickers(final int searchDepth) {
+    final MovePicker[] movePickers = new MovePicker[Math.max(searchDepth, 1)];
+    for (int i = 0; i < movePickers.length; i++) {
+      movePickers[i] = new MovePicker(this.moveHistory);
+    }
+    return movePickers;
+  }
+}
@@ -1,9 +1,18 @@
 package com.chess.engine.player.AI;
 
 import com.chess.engine.board.Board;
+import com.chess.engine.board.SearchBoard;
 
 public interface BoardEvaluator {
 
   int evaluate(Board board, int depth);
+
+  /**
+   * Scores a position reached by the search. Evaluators that only know the
+   * immutable board get a rebuilt copy of it.
+   */
+  default int evaluate(SearchBoard board, int depth) {
+    return evaluate(board.toBoard(), depth);
+  }
   
 }
@@ -0,0 +1,315 @@
+package com.chess.engine.player.AI;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.EncodedMove;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs {@link AlphaBeta} to depth 1, 2, 3 and so on until the
+ * {@link SearchLimits} run out or {@link #stop()} is called, and plays the
+ * best move of the last depth that finished. An iteration cut short is thrown
+ * away, since its moves were not all searched to the same depth. Each new
+ * iteration searches the previous best move first.
+ *
+ * Leaves are resolved with a {@link #quiescence} search, so the score of a
+ * depth never stops halfway through an exchange. The forward pruning
+ * {@link SearchFeature}s are on unless the constructor is given another set.
+ *
+ * Results are kept in a {@link TranspositionTable}, so each iteration finds
+ * the positions of the one before already scored, along with the best move
+ * of each to try first. After a search {@link #getPrincipalVariation()} holds
+ * the line both sides are expected to play, read back from the table; a
+ * {@link SearchListener} also gets it after every depth.
+ *
+ * The first iteration always runs to completion so there is a move to return.
+ * An instance runs one search at a time.
+ */
+public class IterativeDeepening extends AlphaBeta {
+
+  // how many nodes to visit between looks at the clock
+  private static final int TIME_CHECK_INTERVAL = 1024;
+  static final int DEFAULT_TABLE_SIZE_MB = 16;
+  // the helpers of a LazySmp search leave out blocks of depths: helper i
+  // skips a depth when (depth + phase) / size is odd, so some helpers are
+  // always working on a deeper iteration than the main thread
+  private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+  private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+  private final SearchLimits defaultLimits;
+  // set for the threads of a LazySmp search: the table is shared and starts
+  // each search from there, and helpers vary their order and depths
+  boolean isTableShared;
+  int helperIndex;
+
+  private volatile boolean stopRequested;
+  private volatile SearchLimits newLimits;
+  private long deadline;
+  private long maxNodes;
+  private int maxDepth;
+  private boolean isAborted;
+  private int completedDepth;
+  private int score;
+  private List<Move> principalVariation = Collections.emptyList();
+
+  public IterativeDeepening(final SearchLimits limits) {
+    this(new StandardBoardEvaluator(), limits);
+  }
+
+  public IterativeDeepening(final BoardEvaluator boardEvaluator, final SearchLimits limits) {
+    this(boardEvaluator, limits, new TranspositionTable(DEFAULT_TABLE_SIZE_MB));
+  }
+
+  public IterativeDeepening(final BoardEvaluator boardEvaluator,
+                            final SearchLimits limits,
+                            final TranspositionTable transpositionTable) {
+    this(boardEvaluator, limits, transpositionTable, SearchFeature.forwardPruning());
+  }
+
+  public IterativeDeepening(final BoardEvaluator boardEvaluator,
+                            final SearchLimits limits,
+                            final TranspositionTable transpositionTable,
+                            final Set<SearchFeature> searchFeatures) {
+    super(boardEvaluator, limits.getMaxDepth(), transpositionTable, searchFeatures);
+    this.defaultLimits = limits;
+  }
+
+  @Override
+  public String toString() {
+    return "IterativeDeepening";
+  }
+
+  @Override
+  public Move execute(final Board board) {
+    return execute(board, this.defaultLimits);
+  }
+
+  @Override
+  public Move execute(final Board board, final SearchLimits limits) {
+    final long startTime = System.currentTimeMillis();
+    resetStats();
+    this.maxDepth = limits.getMaxDepth();
+    applyLimits(limits, startTime);
+    this.isAborted = false;
+    this.completedDepth = 0;
+    this.principalVariation = Collections.emptyList();
+    if (!this.isTableShared) {
+      this.transpositionTable.newSearch();
+    }
+    this.moveHistory.age();
+
+    final SearchBoard searchBoard = new SearchBoard(board);
+    final MovePicker[] movePickers = createMovePickers(limits.getMaxDepth());
+    final List<Move> rootMoves = new ArrayList<>(board.currentPlayer().getLegalMoves());
+    Collections.reverse(rootMoves);
+    Collections.rotate(rootMoves, this.helperIndex);
+
+    Move bestMove = null;
+    for (int depth = 1; depth <= this.maxDepth; depth++) {
+      if (isSkippedDepth(depth)) {
+        continue;
+      }
+      final long iterationStart = System.currentTimeMillis();
+      final long iterationNodes = this.searchStats.nodes;
+      final Move iterationMove = searchIteration(searchBoard, rootMoves, movePickers, depth);
+      if (this.isAborted) {
+        break;
+      }
+      bestMove = iterationMove;
+      this.completedDepth = depth;
+      this.score = this.rootScore;
+      final long now = System.currentTimeMillis();
+      this.searchStats.completeIteration(depth, this.score, this.searchStats.nodes - iterationNodes, now - iterationStart);
+      this.searchStats.elapsedMillis = now - startTime;
+      // the line is only worth reading out here when someone is listening
+      if (this.searchListener != null) {
+        this.searchStats.principalVariation = readPrincipalVariation(board, bestMove);
+      }
+      final SearchStats stats = publishStats();
+      if (this.searchListener != null) {
+        this.searchListener.onIteration(stats);
+      }
+      if (bestMove == null || isOutOfBudget()) {
+        break;
+      }
+      rootMoves.remove(bestMove);
+      rootMoves.add(0, bestMove);
+    }
+    this.principalVariation = readPrincipalVariation(board, bestMove);
+    this.searchStats.principalVariation = this.principalVariation;
+    finishSearch(System.currentTimeMillis() - startTime);
+    this.stopRequested = false;
+    this.newLimits = null;
+    return bestMove;
+  }
+
+  // the budget counts from now; the depth can only come down, since the
+  // move pickers were made for the depth the search started with
+  private void applyLimits(final SearchLimits limits, final long now) {
+    this.deadline = limits.hasMoveTime() ? now + limits.getMoveTimeMillis() : Long.MAX_VALUE;
+    this.maxNodes = limits.hasMaxNodes() ? this.searchStats.nodes + limits.getMaxNodes() : Long.MAX_VALUE;
+    this.maxDepth = Math.min(this.maxDepth, limits.getMaxDepth());
+  }
+
+  private boolean isSkippedDepth(final int depth) {
+    if (this.helperIndex == 0) {
+      return false;
+    }
+    final int pattern = (this.helperIndex - 1) % SKIP_SIZE.length;
+    return ((depth + SKIP_PHASE[pattern]) / SKIP_SIZE[pattern]) % 2 != 0;
+  }
+
+  /**
+   * Runs one iteration over the root moves to the given depth. Subclasses
+   * may search it in several passes as long as the last one is complete.
+   */
+  protected Move searchIteration(final SearchBoard searchBoard,
+                                 final List<Move> rootMoves,
+                                 final MovePicker[] movePickers,
+                                 final int depth) {
+    return searchRoot(searchBoard, rootMoves, movePickers, depth);
+  }
+
+  /**
+   * Asks a running search to finish. It returns the best move of the last
+   * completed depth as soon as it notices. The request holds until a search
+   * returns, so one made just before the search starts still ends it.
+   */
+  public void stop() {
+    this.stopRequested = true;
+  }
+
+  /**
+   * Replaces the limits of a running search, for example when a search that
+   * was pondering becomes the real one. Time and nodes count from when the
+   * search notices, at its next look at the clock; a deeper limit than the
+   * one it started with is not reached. Like {@link #stop()}, the request
+   * holds until a search returns.
+   */
+  void setLimits(final SearchLimits limits) {
+    this.newLimits = limits;
+  }
+
+  // for a caller that signalled a search on another thread and then joined
+  // it: the request may have come after the search returned, and must not
+  // reach the next one
+  void clearRequests() {
+    this.stopRequested = false;
+    this.newLimits = null;
+  }
+
+  /**
+   * The nodes of the last search, or of the last depth the running one
+   * completed.
+   */
+  public long getNodes() {
+    return getSearchStats().getNodes();
+  }
+
+  public int getCompletedDepth() {
+    return this.completedDepth;
+  }
+
+  /**
+   * The score of the last completed depth, from the point of view of the
+   * side that was to move.
+   */
+  public int getScore() {
+    return this.score;
+  }
+
+  /**
+   * The best move of the last search followed by the replies both sides are
+   * expected to make, at most as many moves as the depth that completed. The
+   * line ends early where the table no longer holds the position.
+   */
+  public List<Move> getPrincipalVariation() {
+    return this.principalVariation;
+  }
+
+  // once aborted every node returns at once; the unfinished iteration still
+  // unmakes its moves on the way out, so the board is left as it was
+  @Override
+  protected int search(final SearchBoard board,
+                       final MovePicker[] movePickers,
+                       final int depth,
+                       final int alpha,
+                       final int beta) {
+    if (!enterNode()) {
+      return 0;
+    }
+    if (depth == 0) {
+      return super.quiescence(board, 0, alpha, beta);
+    }
+    return super.search(board, movePickers, depth, alpha, beta);
+  }
+
+  @Override
+  protected int quiescence(final SearchBoard board, final int ply, final int alpha, final int beta) {
+    if (!enterNode()) {
+      return 0;
+    }
+    return super.quiescence(board, ply, alpha, beta);
+  }
+
+  // reports whether the search may go on; the node is counted once it does
+  private boolean enterNode() {
+    if (this.isAborted) {
+      return false;
+    }
+    final long nodes = this.searchStats.nodes;
+    if (this.completedDepth > 0
+        && (nodes % TIME_CHECK_INTERVAL == 0 || nodes >= this.maxNodes)
+        && isOutOfBudget()) {
+      this.isAborted = true;
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  protected boolean isStopped() {
+    return this.isAborted;
+  }
+
+  private boolean isOutOfBudget() {
+    final SearchLimits limits = this.newLimits;
+    if (limits != null) {
+      this.newLimits = null;
+      applyLimits(limits, System.currentTimeMillis());
+    }
+    return this.stopRequested
+        || this.searchStats.nodes >= this.maxNodes
+        || System.currentTimeMillis() >= this.deadline;
+  }
+
+  private List<Move> readPrincipalVariation(final Board board, final Move bestMove) {
+    final List<Move> line = new ArrayList<>();
+    final Set<Long> seenPositions = new HashSet<>();
+    Board position = board;
+    Move move = bestMove;
+    while (move != null
+        && move != Move.NULL_MOVE
+        && line.size() < this.completedDepth
+        && seenPositions.add(position.getZobristKey())) {
+      final MoveTransition transition = position.currentPlayer().makeMove(move);
+      if (!transition.getMoveStatus().isDone()) {
+        break;
+      }
+      line.add(move);
+      position = transition.getTransitionBoard();
+      final long entry = this.transpositionTable.probe(position.getZobristKey());
+      move = entry == TranspositionTable.NO_ENTRY
+          ? null
+          : EncodedMove.decode(position, TranspositionTable.getMove(entry));
+    }
+    return Collections.unmodifiableList(line);
+  }
+}
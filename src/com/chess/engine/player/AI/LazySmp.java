@@ -0,0 +1,188 @@
+package com.chess.engine.player.AI;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.tablebase.Tablebase;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Searches one position on several threads at once. Every thread runs its
+ * own {@link PrincipalVariationSearch} on the same root, but they all share
+ * one {@link TranspositionTable}, so each finds positions the others have
+ * already scored and the main thread reaches a given depth sooner.
+ *
+ * The helper threads start from a rotated root order and each skips its
+ * own pattern of depths, so at any moment they are spread over the current
+ * depth and the next few instead of racing through the same nodes. Only the
+ * main thread's result is played; the helpers are stopped as soon as it
+ * returns. A helper that fails stops the search, and its exception is
+ * rethrown from {@link #execute}.
+ */
+public class LazySmp implements MoveStrategy {
+
+  private final SearchLimits defaultLimits;
+  private final TranspositionTable transpositionTable;
+  private final PrincipalVariationSearch[] searches;
+
+  public LazySmp(final SearchLimits limits, final int threadCount) {
+    this(new StandardBoardEvaluator(), limits, threadCount, IterativeDeepening.DEFAULT_TABLE_SIZE_MB);
+  }
+
+  public LazySmp(final BoardEvaluator boardEvaluator,
+                 final SearchLimits limits,
+                 final int threadCount,
+                 final int tableSizeInMegabytes) {
+    if (threadCount < 1) {
+      throw new IllegalArgumentException("a search needs at least one thread, not " + threadCount);
+    }
+    this.defaultLimits = limits;
+    this.transpositionTable = new TranspositionTable(tableSizeInMegabytes);
+    this.searches = new PrincipalVariationSearch[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      this.searches[i] = new PrincipalVariationSearch(boardEvaluator, limits, this.transpositionTable);
+      this.searches[i].isTableShared = true;
+      this.searches[i].helperIndex = i;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "LazySmp";
+  }
+
+  @Override
+  public Move execute(final Board board) {
+    return execute(board, this.defaultLimits);
+  }
+
+  @Override
+  public Move execute(final Board board, final SearchLimits limits) {
+    // helpers have no budget of their own; they run until the main search is done
+    final SearchLimits helperLimits = SearchLimits.depth(limits.getMaxDepth());
+    // before any thread starts, so they all see the new generation
+    this.transpositionTable.newSearch();
+    final AtomicReference<Throwable> helperFailure = new AtomicReference<>();
+    final Thread[] helpers = new Thread[this.searches.length - 1];
+    for (int i = 0; i < helpers.length; i++) {
+      final PrincipalVariationSearch helper = this.searches[i + 1];
+      helpers[i] = new Thread(() -> helper.execute(board, helperLimits), "LazySmp helper " + (i + 1));
+      helpers[i].setDaemon(true);
+      helpers[i].setUncaughtExceptionHandler((thread, failure) -> {
+        helperFailure.compareAndSet(null, failure);
+        stop();
+      });
+      helpers[i].start();
+    }
+    final Move bestMove;
+    try {
+      bestMove = this.searches[0].execute(board, limits);
+    } finally {
+      stopHelpers(helpers);
+    }
+    final Throwable failure = helperFailure.get();
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    return bestMove;
+  }
+
+  /**
+   * Asks a running search to finish with the best move found so far.
+   */
+  public void stop() {
+    for (final PrincipalVariationSearch search : this.searches) {
+      search.stop();
+    }
+  }
+
+  public int getThreadCount() {
+    return this.searches.length;
+  }
+
+  /**
+   * The nodes searched by all threads together in the last search.
+   */
+  public long getNodes() {
+    long nodes = 0;
+    for (final PrincipalVariationSearch search : this.searches) {
+      nodes += search.getNodes();
+    }
+    return nodes;
+  }
+
+  public int getCompletedDepth() {
+    return this.searches[0].getCompletedDepth();
+  }
+
+  public int getScore() {
+    return this.searches[0].getScore();
+  }
+
+  /**
+   * The statistics of the main thread, with the nodes of every thread.
+   */
+  @Override
+  public SearchStats getSearchStats() {
+    final SearchStats stats = this.searches[0].getSearchStats().snapshot();
+    stats.nodes = getNodes();
+    return stats;
+  }
+
+  /**
+   * Follows the main thread; the helpers report nothing.
+   */
+  @Override
+  public void setSearchListener(final SearchListener searchListener) {
+    this.searches[0].setSearchListener(searchListener);
+  }
+
+  @Override
+  public void setStatsEnabled(final boolean isEnabled) {
+    for (final PrincipalVariationSearch search : this.searches) {
+      search.setStatsEnabled(isEnabled);
+    }
+  }
+
+  /**
+   * Lets every thread look up endings in the tablebase.
+   */
+  public void setTablebase(final Tablebase tablebase) {
+    for (final PrincipalVariationSearch search : this.searches) {
+      search.setTablebase(tablebase);
+    }
+  }
+
+  public List<Move> getPrincipalVariation() {
+    return this.searches[0].getPrincipalVariation();
+  }
+
+  // a stop holds until the helper's search returns, so one request each is
+  // enough even for a helper that has not started yet
+  private void stopHelpers(final Thread[] helpers) {
+    for (int i = 0; i < helpers.length; i++) {
+      this.searches[i + 1].stop();
+    }
+    boolean interrupted = false;
+    for (final Thread helper : helpers) {
+      while (helper.isAlive()) {
+        try {
+          helper.join();
+        } catch (final InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    // a failing helper may have stopped a search that had already returned
+    for (final PrincipalVariationSearch search : this.searches) {
+      search.clearRequests();
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -2,16 +2,47 @@ package com.chess.engine.player.AI;
 
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
 import com.chess.engine.player.MoveTransition;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plain minimax to a fixed depth. With a parallelism above one the root
+ * moves are scored as {@link ForkJoinPool} tasks, each on its own
+ * {@link SearchBoard}; the best move is still picked by walking the scores in
+ * move order, so the result is the same as the sequential search. Nodes are
+ * counted in a {@link LongAdder} so the root tasks do not contend for them.
+ *
+ * Strategies with the same parallelism share one pool, which lives as long as
+ * the program; a new strategy for every move does not start new threads.
+ */
 public class MinMax implements MoveStrategy {
+  private static final ConcurrentHashMap<Integer, ForkJoinPool> ROOT_POOLS = new ConcurrentHashMap<>();
+
   private final BoardEvaluator boardEvaluator;
   private final int searchDepth;
+  private final ForkJoinPool rootPool;
+  private final LongAdder nodes = new LongAdder();
+  private final SearchStats searchStats = new SearchStats();
+  private volatile SearchStats publishedStats = new SearchStats();
+  private SearchListener searchListener;
 
   // new constructor taking searchDepth
   public MinMax(final int searchDepth) {
+    this(searchDepth, 1);
+  }
+
+  public MinMax(final int searchDepth, final int parallelism) {
     this.boardEvaluator = new StandardBoardEvaluator();
     this.searchDepth = searchDepth;
+    this.rootPool = parallelism > 1 ? ROOT_POOLS.computeIfAbsent(parallelism, ForkJoinPool::new) : null;
   }
 
   @Override
@@ -23,6 +54,7 @@ public class MinMax implements MoveStrategy {
   public Move execute(Board board) {
 
     final long startTime = System.currentTimeMillis();
+    this.nodes.reset();
 
     Move bestMove = null;
 
@@ -30,17 +62,14 @@ public class MinMax implements MoveStrategy {
     int lowestSeenValue = Integer.MAX_VALUE;
     int currentValue;
 
-    System.out.println(board.currentPlayer() + " THINKING with depth = " + this.searchDepth);
+    final List<Move> rootMoves = new ArrayList<>(board.currentPlayer().getLegalMoves());
+    final Integer[] rootValues = scoreRootMoves(board, rootMoves);
 
-    int numMoves = board.currentPlayer().getLegalMoves().size();
+    for (int i = 0; i < rootMoves.size(); i++) {
+      final Move move = rootMoves.get(i);
 
-    for (final Move move : board.currentPlayer().getLegalMoves()) {
-      final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
-
-      if (moveTransition.getMoveStatus().isDone()) {
-        currentValue = board.currentPlayer().getAlliance().isWhite()
-            ? min(moveTransition.getTransitionBoard(), this.searchDepth - 1)
-            : max(moveTransition.getTransitionBoard(), this.searchDepth - 1);
+      if (rootValues[i] != null) {
+        currentValue = rootValues[i];
 
         if (board.currentPlayer().getAlliance().isWhite() && currentValue >= highestSeenValue) {
           highestSeenValue = currentValue;
@@ -53,25 +82,79 @@ public class MinMax implements MoveStrategy {
       }
     }
 
-    final long exexutionTime = System.currentTimeMillis() - startTime;
+    final long executionTime = System.currentTimeMillis() - startTime;
+    final boolean isWhite = board.currentPlayer().getAlliance().isWhite();
+    this.searchStats.reset();
+    this.searchStats.nodes = this.nodes.sum();
+    this.searchStats.completeIteration(this.searchDepth, isWhite ? highestSeenValue : -lowestSeenValue,
+        this.searchStats.nodes, executionTime);
+    this.searchStats.elapsedMillis = executionTime;
+    final SearchStats stats = this.searchStats.snapshot();
+    this.publishedStats = stats;
+    if (this.searchListener != null) {
+      this.searchListener.onSearchFinished(stats);
+    }
 
     return bestMove;
 
   }
 
-  public int min(final Board board, final int depth) {
+  @Override
+  public SearchStats getSearchStats() {
+    return this.publishedStats;
+  }
+
+  @Override
+  public void setSearchListener(final SearchListener searchListener) {
+    this.searchListener = searchListener;
+  }
+
+  // the score of every root move in order, or null for a move that leaves the king in check
+  private Integer[] scoreRootMoves(final Board board, final List<Move> rootMoves) {
+    final Integer[] rootValues = new Integer[rootMoves.size()];
+    if (this.rootPool == null) {
+      for (int i = 0; i < rootValues.length; i++) {
+        rootValues[i] = scoreRootMove(board, rootMoves.get(i));
+      }
+      return rootValues;
+    }
+    final List<ForkJoinTask<Integer>> tasks = new ArrayList<>(rootMoves.size());
+    for (final Move move : rootMoves) {
+      tasks.add(this.rootPool.submit(() -> scoreRootMove(board, move)));
+    }
+    for (int i = 0; i < rootValues.length; i++) {
+      rootValues[i] = tasks.get(i).join();
+    }
+    return rootValues;
+  }
+
+  private Integer scoreRootMove(final Board board, final Move move) {
+    final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
+    if (!moveTransition.getMoveStatus().isDone()) {
+      return null;
+    }
+    // below the root the tree is walked on one mutable board with make/unmake
+    final SearchBoard searchBoard = new SearchBoard(moveTransition.getTransitionBoard());
+    final MoveList[] moveBuffers = createMoveBuffers(this.searchDepth);
+    return board.currentPlayer().getAlliance().isWhite()
+        ? min(searchBoard, moveBuffers, this.searchDepth - 1)
+        : max(searchBoard, moveBuffers, this.searchDepth - 1);
+  }
 
+  public int min(final SearchBoard board, final MoveList[] moveBuffers, final int depth) {
+    this.nodes.increment();
     if (depth == 0 || isEndGameScenario(board)) {
       return this.boardEvaluator.evaluate(board, depth);
     }
 
     int lowestSeenValue = Integer.MAX_VALUE;
 
-    for (final Move move : board.currentPlayer().getLegalMoves()) {
-      final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
-
-      if (moveTransition.getMoveStatus().isDone()) {
-        final int currentValue = max(moveTransition.getTransitionBoard(), depth - 1);
+    final MoveList moves = moveBuffers[depth];
+    board.generateMoves(moves);
+    for (int i = 0; i < moves.size(); i++) {
+      if (board.makeMove(moves.get(i))) {
+        final int currentValue = max(board, moveBuffers, depth - 1);
+        board.unmakeMove();
         if (currentValue <= lowestSeenValue) {
           lowestSeenValue = currentValue;
         }
@@ -81,22 +164,32 @@ public class MinMax implements MoveStrategy {
     return lowestSeenValue;
   }
 
-  private boolean isEndGameScenario(final Board board) {
-    return board.currentPlayer().isInCheckMate() || board.currentPlayer().isInStaleMate();
+  private static MoveList[] createMoveBuffers(final int searchDepth) {
+    final MoveList[] moveBuffers = new MoveList[Math.max(searchDepth, 1)];
+    for (int i = 0; i < moveBuffers.length; i++) {
+      moveBuffers[i] = new MoveList();
+    }
+    return moveBuffers;
+  }
+
+  private boolean isEndGameScenario(final SearchBoard board) {
+    return !board.hasLegalMoves();
   }
 
-  public int max(final Board board, final int depth) {
+  public int max(final SearchBoard board, final MoveList[] moveBuffers, final int depth) {
+    this.nodes.increment();
     if (depth == 0 || isEndGameScenario(board)) {
       return this.boardEvaluator.evaluate(board, depth);
     }
 
     int highestSeenValue = Integer.MIN_VALUE;
 
-    for (final Move move : board.currentPlayer().getLegalMoves()) {
-      final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
-
-      if (moveTransition.getMoveStatus().isDone()) {
-        final int currentValue = min(moveTransition.getTransitionBoard(), depth - 1);
+    final MoveList moves = moveBuffers[depth];
+    board.generateMoves(moves);
+    for (int i = 0; i < moves.size(); i++) {
+      if (board.makeMove(moves.get(i))) {
+        final int currentValue = min(board, moveBuffers, depth - 1);
+        board.unmakeMove();
         if (currentValue >= highestSeenValue) {
           highestSeenValue = currentValue;
         }
@@ -0,0 +1,79 @@
+package com.chess.engine.player.AI;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.EncodedMove;
+
+import java.util.Arrays;
+
+/**
+ * What a search has learned about quiet moves that caused a cutoff: the two
+ * latest such moves at every ply, known as killers, and a history score per
+ * side and from and to square that grows with the depth of each cutoff.
+ */
+final class MoveHistory {
+
+  static final int KILLERS_PER_PLY = 2;
+
+  private static final int MAX_PLY = 128;
+  // scores are halved once one of them passes this, so they never overflow
+  private static final int MAX_HISTORY = 1 << 20;
+
+  private final int[][] killers;
+  private final int[] history;
+
+  MoveHistory() {
+    this.killers = new int[MAX_PLY][KILLERS_PER_PLY];
+    this.history = new int[2 * 64 * 64];
+  }
+
+  void recordCutoff(final Alliance side, final int move, final int ply, final int depth) {
+    if (ply < MAX_PLY) {
+      final int[] plyKillers = this.killers[ply];
+      if (plyKillers[0] != move) {
+        plyKillers[1] = plyKillers[0];
+        plyKillers[0] = move;
+      }
+    }
+    final int index = historyIndex(side, move);
+    this.history[index] += depth * depth;
+    if (this.history[index] > MAX_HISTORY) {
+      halveHistory();
+    }
+  }
+
+  int getKiller(final int ply, final int slot) {
+    return ply < MAX_PLY ? this.killers[ply][slot] : EncodedMove.NO_MOVE;
+  }
+
+  int getHistory(final Alliance side, final int move) {
+    return this.history[historyIndex(side, move)];
+  }
+
+  /**
+   * Forgets the killers and halves the history scores, so a new search still
+   * benefits from the last one but is not ruled by it.
+   */
+  void age() {
+    for (final int[] plyKillers : this.killers) {
+      Arrays.fill(plyKillers, EncodedMove.NO_MOVE);
+    }
+    halveHistory();
+  }
+
+  void clear() {
+    for (final int[] plyKillers : this.killers) {
+      Arrays.fill(plyKillers, EncodedMove.NO_MOVE);
+    }
+    Arrays.fill(this.history, 0);
+  }
+
+  private void halveHistory() {
+    for (int i = 0; i < this.history.length; i++) {
+      this.history[i] >>= 1;
+    }
+  }
+
+  private static int historyIndex(final Alliance side, final int move) {
+    return (side.ordinal() << 12) | (EncodedMove.getFrom(move) << 6) | EncodedMove.getTo(move);
+  }
+}
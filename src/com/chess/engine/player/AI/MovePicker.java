@@ -0,0 +1,211 @@
+package com.chess.engine.player.AI;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.EncodedMove;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Hands out the legal moves of a node one at a time, likely best first: the
+ * move the {@link TranspositionTable} remembers for the position, then
+ * captures and promotions by most valuable victim and least valuable
+ * attacker, then the killer moves of the ply, then the remaining quiet moves
+ * by their {@link MoveHistory} score.
+ *
+ * Each stage is only scored once the one before has run out, and every call
+ * picks the best move left rather than sorting the stage up front. Most cutoffs
+ * come from the first few moves, so the rest never need ordering.
+ */
+final class MovePicker {
+
+  private static final int STAGE_HASH_MOVE = 0;
+  private static final int STAGE_CAPTURES = 1;
+  private static final int STAGE_KILLERS = 2;
+  private static final int STAGE_QUIETS = 3;
+  private static final int STAGE_DONE = 4;
+  // the quiescence search takes the captures and stops there
+  private static final int STAGE_QUIESCENCE_CAPTURES = 5;
+
+  private final MoveHistory moveHistory;
+  private final MoveList moves;
+  private final int[] candidates;
+  private final int[] scores;
+  private final int[] playedKillers;
+
+  private SearchBoard board;
+  private int hashMove;
+  private int stage;
+  private int killerSlot;
+  private int candidateCount;
+  private int nextCandidate;
+
+  MovePicker(final MoveHistory moveHistory) {
+    this.moveHistory = moveHistory;
+    this.moves = new MoveList();
+    this.candidates = new int[MoveList.MAX_MOVES];
+    this.scores = new int[MoveList.MAX_MOVES];
+    this.playedKillers = new int[MoveHistory.KILLERS_PER_PLY];
+  }
+
+  /**
+   * Generates the legal moves of the position and returns how many there
+   * are. The hash move is ignored unless it is one of them.
+   */
+  int reset(final SearchBoard board, final int hashMove) {
+    this.board = board;
+    this.stage = STAGE_HASH_MOVE;
+    board.generateLegalMoves(this.moves);
+    this.hashMove = hashMove != EncodedMove.NO_MOVE && this.moves.contains(hashMove) ? hashMove : EncodedMove.NO_MOVE;
+    return this.moves.size();
+  }
+
+  /**
+   * Generates only the legal captures and promotions of the position, for
+   * the quiescence search, and returns how many there are.
+   */
+  int resetCaptures(final SearchBoard board) {
+    this.board = board;
+    this.stage = STAGE_QUIESCENCE_CAPTURES;
+    this.hashMove = EncodedMove.NO_MOVE;
+    final int numCaptures = board.generateCaptures(this.moves);
+    scoreCaptures();
+    return numCaptures;
+  }
+
+  /**
+   * The next move to search, or {@link EncodedMove#NO_MOVE} once every move
+   * has been handed out.
+   */
+  int nextMove() {
+    while (true) {
+      switch (this.stage) {
+        case STAGE_HASH_MOVE:
+          this.stage = STAGE_CAPTURES;
+          scoreCaptures();
+          if (this.hashMove != EncodedMove.NO_MOVE) {
+            return this.hashMove;
+          }
+          break;
+        case STAGE_CAPTURES:
+          if (this.nextCandidate < this.candidateCount) {
+            return pickBest();
+          }
+          this.stage = STAGE_KILLERS;
+          this.killerSlot = 0;
+          break;
+        case STAGE_KILLERS:
+          final int ply = this.board.getPly();
+          while (this.killerSlot < MoveHistory.KILLERS_PER_PLY) {
+            final int killer = this.moveHistory.getKiller(ply, this.killerSlot);
+            this.playedKillers[this.killerSlot++] = EncodedMove.NO_MOVE;
+            if (killer != EncodedMove.NO_MOVE && killer != this.hashMove && this.moves.contains(killer)) {
+              this.playedKillers[this.killerSlot - 1] = killer;
+              return killer;
+            }
+          }
+          this.stage = STAGE_QUIETS;
+          scoreQuiets();
+          break;
+        case STAGE_QUIETS:
+          if (this.nextCandidate < this.candidateCount) {
+            return pickBest();
+          }
+          this.stage = STAGE_DONE;
+          break;
+        case STAGE_QUIESCENCE_CAPTURES:
+          if (this.nextCandidate < this.candidateCount) {
+            return pickBest();
+          }
+          this.stage = STAGE_DONE;
+          break;
+        default:
+          return EncodedMove.NO_MOVE;
+      }
+    }
+  }
+
+  /**
+   * Captures and promotions change the material on the board; killers and
+   * history only track the other moves.
+   */
+  static boolean isQuiet(final int move) {
+    return !EncodedMove.isCapture(move) && !EncodedMove.isPromotion(move);
+  }
+
+  /**
+   * The material the move wins outright: the value of what it captures plus
+   * what a promoted pawn becomes.
+   */
+  static int materialGain(final SearchBoard board, final int move) {
+    int gain = 0;
+    if (EncodedMove.getFlags(move) == EncodedMove.EN_PASSANT) {
+      gain = PieceType.PAWN.getPieceValue();
+    } else if (EncodedMove.isCapture(move)) {
+      gain = BitBoard.pieceTypeOf(board.getPieceIndex(EncodedMove.getTo(move))).getPieceValue();
+    }
+    if (EncodedMove.isPromotion(move)) {
+      gain += EncodedMove.getPromotionType(move).getPieceValue() - PieceType.PAWN.getPieceValue();
+    }
+    return gain;
+  }
+
+  private void scoreCaptures() {
+    this.candidateCount = 0;
+    this.nextCandidate = 0;
+    for (int i = 0; i < this.moves.size(); i++) {
+      final int move = this.moves.get(i);
+      if (!isQuiet(move) && move != this.hashMove) {
+        addCandidate(move, mvvLva(move));
+      }
+    }
+  }
+
+  private void scoreQuiets() {
+    this.candidateCount = 0;
+    this.nextCandidate = 0;
+    for (int i = 0; i < this.moves.size(); i++) {
+      final int move = this.moves.get(i);
+      if (isQuiet(move) && move != this.hashMove && !isPlayedKiller(move)) {
+        addCandidate(move, this.moveHistory.getHistory(this.board.getSideToMove(), move));
+      }
+    }
+  }
+
+  // any victim outranks any attacker: the smallest gap between victims times
+  // the weight is larger than the most valuable attacker
+  private int mvvLva(final int move) {
+    final int attackerValue = BitBoard.pieceTypeOf(this.board.getPieceIndex(EncodedMove.getFrom(move))).getPieceValue();
+    return materialGain(this.board, move) * 100 - attackerValue;
+  }
+
+  private boolean isPlayedKiller(final int move) {
+    for (final int killer : this.playedKillers) {
+      if (killer == move) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void addCandidate(final int move, final int score) {
+    this.candidates[this.candidateCount] = move;
+    this.scores[this.candidateCount] = score;
+    this.candidateCount++;
+  }
+
+  // one pass of a selection sort: swap the best remaining candidate forward
+  private int pickBest() {
+    int best = this.nextCandidate;
+    for (int i = best + 1; i < this.candidateCount; i++) {
+      if (this.scores[i] > this.scores[best]) {
+        best = i;
+      }
+    }
+    final int move = this.candidates[best];
+    this.candidates[best] = this.candidates[this.nextCandidate];
+    this.scores[best] = this.scores[this.nextCandidate];
+    this.nextCandidate++;
+    return move;
+  }
+}
@@ -6,4 +6,34 @@ import com.chess.engine.board.Move;
 public interface MoveStrategy {
 
    Move execute(Board board);
+
+   /**
+    * Picks a move within the given limits. Strategies that search to a fixed
+    * depth ignore them.
+    */
+   default Move execute(Board board, SearchLimits limits) {
+      return execute(board);
+   }
+
+   /**
+    * A snapshot of the counters of the last search, or of the running one.
+    * Strategies that keep none return empty statistics.
+    */
+   default SearchStats getSearchStats() {
+      return new SearchStats();
+   }
+
+   /**
+    * Reports the progress of every later search to the listener, or to no
+    * one when it is null. Strategies with nothing to report ignore it.
+    */
+   default void setSearchListener(SearchListener searchListener) {
+   }
+
+   /**
+    * Whether later searches count cutoffs and table hits on top of their
+    * nodes. Counting is on by default.
+    */
+   default void setStatsEnabled(boolean isEnabled) {
+   }
 }
@@ -0,0 +1,190 @@
+package com.chess.engine.player.AI;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.PawnPromotion;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * An opening book in the Polyglot {@code .bin} layout: 16-byte big-endian
+ * entries of key, move, weight and learn data, sorted by key as an unsigned
+ * number. The file is memory-mapped rather than read, so a book of any size
+ * opens at once and its entries stay out of the heap; a lookup is a binary
+ * search that touches a few pages.
+ *
+ * Positions are looked up by {@link Board#getZobristKey()}, which is built
+ * from Polyglot's own random numbers and so is the position's Polyglot key;
+ * books made by other tools work as they are.
+ *
+ * Moves use Polyglot's encoding: the destination in bits 0-5 and the origin
+ * in bits 6-11, both counted from a1, and the promotion piece in bits 12-14.
+ * Castling is written as the king taking its own rook.
+ */
+public final class OpeningBook implements Closeable {
+
+  public static final int ENTRY_SIZE = 16;
+
+  // entries per mapped segment; a single mapping cannot exceed 2 GB
+  private static final int SEGMENT_SHIFT = 26;
+  private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+  private static final PieceType[] PROMOTION_TYPES = {null, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN};
+
+  private final FileChannel channel;
+  private final MappedByteBuffer[] segments;
+  private final long entryCount;
+
+  public OpeningBook(final Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    final long size = this.channel.size();
+    if (size % ENTRY_SIZE != 0) {
+      this.channel.close();
+      throw new IOException(path + " is not an opening book: its size is not a multiple of " + ENTRY_SIZE);
+    }
+    this.entryCount = size / ENTRY_SIZE;
+    this.segments = new MappedByteBuffer[(int) ((this.entryCount + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+    for (int i = 0; i < this.segments.length; i++) {
+      final long start = ((long) i << SEGMENT_SHIFT) * ENTRY_SIZE;
+      final long length = Math.min(size - start, (SEGMENT_MASK + 1) * ENTRY_SIZE);
+      this.segments[i] = this.channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    }
+  }
+
+  public long getEntryCount() {
+    return this.entryCount;
+  }
+
+  /**
+   * The legal moves the book has for the position with their weights, in
+   * book order. Entries with no weight or with a move that is not legal here
+   * are left out.
+   */
+  public Map<Move, Integer> getMoves(final Board board) {
+    final long key = board.getZobristKey();
+    long index = firstEntry(key);
+    if (index == this.entryCount || getKey(index) != key) {
+      return Collections.emptyMap();
+    }
+    final Map<Move, Integer> moves = new LinkedHashMap<>();
+    for (; index < this.entryCount && getKey(index) == key; index++) {
+      final int weight = getWeight(index);
+      final Move move = decodeMove(board, getMove(index));
+      if (weight > 0 && move != null) {
+        moves.merge(move, weight, Integer::sum);
+      }
+    }
+    return moves;
+  }
+
+  /**
+   * One of the book moves, each chosen in proportion to its weight, or null
+   * when the position is not in the book.
+   */
+  public Move pickMove(final Board board, final Random random) {
+    final Map<Move, Integer> moves = getMoves(board);
+    int totalWeight = 0;
+    for (final int weight : moves.values()) {
+      totalWeight += weight;
+    }
+    if (totalWeight == 0) {
+      return null;
+    }
+    int choice = random.nextInt(totalWeight);
+    for (final Map.Entry<Move, Integer> entry : moves.entrySet()) {
+      choice -= entry.getValue();
+      if (choice < 0) {
+        return entry.getKey();
+      }
+    }
+    throw new IllegalStateException("weights do not add up");
+  }
+
+  /**
+   * Closes the file. The mappings stay valid until they are garbage collected.
+   */
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  /**
+   * The Polyglot encoding of a move.
+   */
+  public static int encodeMove(final Move move) {
+    final int from = move.getCurrentCoordinate() ^ 56;
+    int to = move.getDestinationCoordinate() ^ 56;
+    int promotion = 0;
+    if (move.isCastlingMove()) {
+      // the rook starts in the corner the king moves towards
+      to = (move.getDestinationCoordinate() > move.getCurrentCoordinate()
+          ? move.getCurrentCoordinate() + 3
+          : move.getCurrentCoordinate() - 4) ^ 56;
+    } else if (move instanceof PawnPromotion) {
+      final PieceType promotionType = ((PawnPromotion) move).getPromotionPiece().getPieceType();
+      for (int i = 1; i < PROMOTION_TYPES.length; i++) {
+        if (PROMOTION_TYPES[i] == promotionType) {
+          promotion = i;
+        }
+      }
+    }
+    return to | (from << 6) | (promotion << 12);
+  }
+
+  /**
+   * The legal move of the board's current player a Polyglot move describes,
+   * or null when it has none.
+   */
+  public static Move decodeMove(final Board board, final int bookMove) {
+    for (final Move move : board.currentPlayer().getLegalMoves()) {
+      if (encodeMove(move) == bookMove && board.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+        return move;
+      }
+    }
+    return null;
+  }
+
+  // the index of the first entry whose key is not below the given one
+  private long firstEntry(final long key) {
+    long low = 0;
+    long high = this.entryCount;
+    while (low < high) {
+      final long middle = (low + high) >>> 1;
+      if (Long.compareUnsigned(getKey(middle), key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private long getKey(final long index) {
+    return segment(index).getLong(offset(index));
+  }
+
+  private int getMove(final long index) {
+    return segment(index).getShort(offset(index) + 8) & 0xFFFF;
+  }
+
+  private int getWeight(final long index) {
+    return segment(index).getShort(offset(index) + 10) & 0xFFFF;
+  }
+
+  private MappedByteBuffer segment(final long index) {
+    return this.segments[(int) (index >>> SEGMENT_SHIFT)];
+  }
+
+  private static int offset(final long index) {
+    return (int) (index & SEGMENT_MASK) * ENTRY_SIZE;
+  }
+}
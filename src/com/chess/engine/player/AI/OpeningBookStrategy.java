@@ -0,0 +1,65 @@
+package com.chess.engine.player.AI;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+import java.util.Random;
+
+/**
+ * Plays from an {@link OpeningBook} while the game is in it, picking among the
+ * book moves by weight, and hands every other position to the strategy it
+ * wraps. Statistics and listeners belong to the wrapped strategy, so a move
+ * from the book leaves the statistics of the last search in place.
+ */
+public class OpeningBookStrategy implements MoveStrategy {
+
+  private final OpeningBook openingBook;
+  private final MoveStrategy strategy;
+  private final Random random;
+
+  public OpeningBookStrategy(final OpeningBook openingBook, final MoveStrategy strategy) {
+    this(openingBook, strategy, new Random());
+  }
+
+  public OpeningBookStrategy(final OpeningBook openingBook, final MoveStrategy strategy, final Random random) {
+    this.openingBook = openingBook;
+    this.strategy = strategy;
+    this.random = random;
+  }
+
+  @Override
+  public String toString() {
+    return "OpeningBook(" + this.strategy + ")";
+  }
+
+  @Override
+  public Move execute(final Board board) {
+    final Move bookMove = this.openingBook.pickMove(board, this.random);
+    return bookMove != null ? bookMove : this.strategy.execute(board);
+  }
+
+  @Override
+  public Move execute(final Board board, final SearchLimits limits) {
+    final Move bookMove = this.openingBook.pickMove(board, this.random);
+    return bookMove != null ? bookMove : this.strategy.execute(board, limits);
+  }
+
+  @Override
+  public SearchStats getSearchStats() {
+    return this.strategy.getSearchStats();
+  }
+
+  @Override
+  public void setSearchListener(final SearchListener searchListener) {
+    this.strategy.setSearchListener(searchListener);
+  }
+
+  @Override
+  public void setStatsEnabled(final boolean isEnabled) {
+    this.strategy.setStatsEnabled(isEnabled);
+  }
+
+  public OpeningBook getOpeningBook() {
+    return this.openingBook;
+  }
+}
@@ -0,0 +1,166 @@
+package com.chess.engine.player.AI;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+
+import java.util.List;
+
+/**
+ * Keeps thinking while the opponent does. After every move it returns, it
+ * plays the reply its {@link PrincipalVariationSearch} expects and searches
+ * the resulting position on a background thread.
+ *
+ * If the opponent then plays the expected reply, the next call to
+ * {@link #execute(Board, SearchLimits)} hands its limits to that search and
+ * lets it carry on; the depth it reached, its move ordering and its
+ * transposition table entries all count. Time and nodes are counted from the
+ * moment of the hit, and the depth is capped at the one pondering started
+ * with. Any other reply stops the background search and starts a normal one,
+ * which still finds whatever the table learned meanwhile.
+ *
+ * {@link #stopPondering()} releases the background thread, for example when
+ * the game ends.
+ */
+public class PonderingSearch implements MoveStrategy {
+
+  private final PrincipalVariationSearch search;
+  private final SearchLimits defaultLimits;
+
+  private Thread ponderThread;
+  private Board ponderBoard;
+  private Move ponderMove;
+  private volatile Move ponderResult;
+
+  public PonderingSearch(final SearchLimits limits) {
+    this(new PrincipalVariationSearch(limits), limits);
+  }
+
+  public PonderingSearch(final PrincipalVariationSearch search, final SearchLimits limits) {
+    this.search = search;
+    this.defaultLimits = limits;
+  }
+
+  @Override
+  public String toString() {
+    return "PonderingSearch";
+  }
+
+  @Override
+  public Move execute(final Board board) {
+    return execute(board, this.defaultLimits);
+  }
+
+  @Override
+  public Move execute(final Board board, final SearchLimits limits) {
+    Move bestMove = null;
+    if (isPondering() && this.ponderBoard.getZobristKey() == board.getZobristKey()) {
+      bestMove = finishPondering(limits);
+    } else {
+      stopPondering();
+    }
+    if (bestMove == null) {
+      bestMove = this.search.execute(board, limits);
+    }
+    startPondering(board, bestMove, limits);
+    return bestMove;
+  }
+
+  /**
+   * The reply the background search assumes the opponent will play, or null
+   * when it is not pondering.
+   */
+  public Move getPonderMove() {
+    return isPondering() ? this.ponderMove : null;
+  }
+
+  public boolean isPondering() {
+    return this.ponderThread != null;
+  }
+
+  /**
+   * Stops the background search, if any, and waits for its thread to end.
+   */
+  public void stopPondering() {
+    if (this.ponderThread == null) {
+      return;
+    }
+    this.search.stop();
+    joinPonderThread();
+  }
+
+  @Override
+  public SearchStats getSearchStats() {
+    return this.search.getSearchStats();
+  }
+
+  /**
+   * Background searches report to the listener too, from their own thread.
+   */
+  @Override
+  public void setSearchListener(final SearchListener searchListener) {
+    this.search.setSearchListener(searchListener);
+  }
+
+  @Override
+  public void setStatsEnabled(final boolean isEnabled) {
+    this.search.setStatsEnabled(isEnabled);
+  }
+
+  public PrincipalVariationSearch getSearch() {
+    return this.search;
+  }
+
+  // the expected position came up: give the running search the real budget
+  private Move finishPondering(final SearchLimits limits) {
+    this.search.setLimits(limits);
+    joinPonderThread();
+    return this.ponderResult;
+  }
+
+  private void startPondering(final Board board, final Move bestMove, final SearchLimits limits) {
+    final List<Move> line = this.search.getPrincipalVariation();
+    if (bestMove == null || line.size() < 2 || !line.get(0).equals(bestMove)) {
+      return;
+    }
+    final MoveTransition played = board.currentPlayer().makeMove(bestMove);
+    if (!played.getMoveStatus().isDone()) {
+      return;
+    }
+    final Move expectedReply = line.get(1);
+    final MoveTransition replied = played.getTransitionBoard().currentPlayer().makeMove(expectedReply);
+    if (!replied.getMoveStatus().isDone()) {
+      return;
+    }
+    final Board position = replied.getTransitionBoard();
+    // no clock while pondering: it runs until the opponent moves
+    final SearchLimits ponderLimits = SearchLimits.depth(limits.getMaxDepth());
+    this.ponderBoard = position;
+    this.ponderMove = expectedReply;
+    this.ponderResult = null;
+    this.ponderThread = new Thread(() -> this.ponderResult = this.search.execute(position, ponderLimits), "Ponder");
+    this.ponderThread.setDaemon(true);
+    this.ponderThread.start();
+  }
+
+  // waits for the background search to return, which its limits or a stop
+  // guarantee
+  private void joinPonderThread() {
+    final Thread thread = this.ponderThread;
+    boolean interrupted = false;
+    while (thread.isAlive()) {
+      try {
+        thread.join();
+      } catch (final InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    this.search.clearRequests();
+    this.ponderThread = null;
+    this.ponderBoard = null;
+    this.ponderMove = null;
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.chess.engine.player.AI;
+
+import com.chess.engine.board.Move;
+import com.chess.engine.board.SearchBoard;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link IterativeDeepening} with principal variation search and late move
+ * reductions on top of the forward pruning, so only the expected best line is
+ * searched with a full window and everything else just has to be proven
+ * worse.
+ *
+ * Each depth from the fourth on starts with an aspiration window around the
+ * score of the depth before. A score that lands outside it is searched again
+ * with the window widened on that side, until the score fits.
+ */
+public class PrincipalVariationSearch extends IterativeDeepening {
+
+  private static final int ASPIRATION_MIN_DEPTH = 4;
+  private static final int ASPIRATION_WINDOW = 50;
+  // past this a window is opened all the way on the side that failed
+  private static final int MAX_ASPIRATION_WINDOW = 1000;
+
+  public PrincipalVariationSearch(final SearchLimits limits) {
+    this(new StandardBoardEvaluator(), limits);
+  }
+
+  public PrincipalVariationSearch(final BoardEvaluator boardEvaluator, final SearchLimits limits) {
+    this(boardEvaluator, limits, new TranspositionTable(DEFAULT_TABLE_SIZE_MB));
+  }
+
+  public PrincipalVariationSearch(final BoardEvaluator boardEvaluator,
+                                  final SearchLimits limits,
+                                  final TranspositionTable transpositionTable) {
+    this(boardEvaluator, limits, transpositionTable, SearchFeature.all());
+  }
+
+  public PrincipalVariationSearch(final BoardEvaluator boardEvaluator,
+                                  final SearchLimits limits,
+                                  final TranspositionTable transpositionTable,
+                                  final Set<SearchFeature> searchFeatures) {
+    super(boardEvaluator, limits, transpositionTable, searchFeatures);
+  }
+
+  @Override
+  public String toString() {
+    return "PrincipalVariationSearch";
+  }
+
+  @Override
+  protected Move searchIteration(final SearchBoard searchBoard,
+                                 final List<Move> rootMoves,
+                                 final MovePicker[] movePickers,
+                                 final int depth) {
+    final int previousScore = getScore();
+    if (depth < ASPIRATION_MIN_DEPTH || isMateScore(previousScore)) {
+      return searchRoot(searchBoard, rootMoves, movePickers, depth);
+    }
+    int window = ASPIRATION_WINDOW;
+    int alpha = previousScore - window;
+    int beta = previousScore + window;
+    while (true) {
+      final Move bestMove = searchRoot(searchBoard, rootMoves, movePickers, depth, alpha, beta);
+      if (isStopped()) {
+        return bestMove;
+      }
+      window *= 2;
+      if (this.rootScore <= alpha) {
+        alpha = window > MAX_ASPIRATION_WINDOW || isMateScore(this.rootScore) ? -INFINITY : this.rootScore - window;
+      } else if (this.rootScore >= beta) {
+        beta = window > MAX_ASPIRATION_WINDOW || isMateScore(this.rootScore) ? INFINITY : this.rootScore + window;
+      } else {
+        return bestMove;
+      }
+    }
+  }
+}
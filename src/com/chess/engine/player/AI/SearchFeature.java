@@ -0,0 +1,66 @@
+package com.chess.engine.player.AI;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Techniques an {@link AlphaBeta} search can switch on. The forward pruning
+ * ones skip work that is very unlikely to change the result, at the risk of
+ * occasionally missing something; the rest change how hard each move is
+ * searched. They can be turned off one by one to measure what they save.
+ */
+public enum SearchFeature {
+
+  /**
+   * Let the opponent move twice: a position that still holds up is cut off
+   * after a shallow search. Skipped when the side to move has only pawns,
+   * and checked with a normal reduced search when it has little else, since
+   * those are the positions where passing can be better than any move.
+   */
+  NULL_MOVE,
+
+  /**
+   * Near the leaves, return at once when the static score beats beta by a
+   * margin that grows with the remaining depth.
+   */
+  REVERSE_FUTILITY,
+
+  /**
+   * Near the leaves, skip quiet moves when the static score is so far below
+   * alpha that only winning material could help.
+   */
+  FUTILITY,
+
+  /**
+   * Near the leaves, drop straight into the quiescence search when the
+   * static score is far below alpha.
+   */
+  RAZORING,
+
+  /**
+   * Search the first move with the full window and the rest with a null
+   * window that only asks whether they beat it, searching again in full
+   * the few that do.
+   */
+  PRINCIPAL_VARIATION,
+
+  /**
+   * Search quiet moves that come late in the order less deep, by more the
+   * later they come and the deeper the node, and again at full depth when
+   * one turns out better than expected.
+   */
+  LATE_MOVE_REDUCTIONS;
+
+  public static Set<SearchFeature> all() {
+    return Collections.unmodifiableSet(EnumSet.allOf(SearchFeature.class));
+  }
+
+  public static Set<SearchFeature> forwardPruning() {
+    return Collections.unmodifiableSet(EnumSet.of(NULL_MOVE, REVERSE_FUTILITY, FUTILITY, RAZORING));
+  }
+
+  public static Set<SearchFeature> none() {
+    return Collections.unmodifiableSet(EnumSet.noneOf(SearchFeature.class));
+  }
+}
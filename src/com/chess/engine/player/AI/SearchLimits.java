@@ -0,0 +1,80 @@
+package com.chess.engine.player.AI;
+
+/**
+ * How far a search may go: a maximum depth, a wall-clock budget and a node
+ * budget. Whichever runs out first ends the search. A budget of zero means
+ * no limit of that kind.
+ */
+public final class SearchLimits {
+
+  public static final int MAX_DEPTH = 64;
+
+  private final int maxDepth;
+  private final long moveTimeMillis;
+  private final long maxNodes;
+
+  private SearchLimits(final Builder builder) {
+    this.maxDepth = builder.maxDepth;
+    this.moveTimeMillis = builder.moveTimeMillis;
+    this.maxNodes = builder.maxNodes;
+  }
+
+  public static SearchLimits depth(final int maxDepth) {
+    return new Builder().setMaxDepth(maxDepth).build();
+  }
+
+  public static SearchLimits moveTime(final long moveTimeMillis) {
+    return new Builder().setMoveTime(moveTimeMillis).build();
+  }
+
+  public int getMaxDepth() {
+    return this.maxDepth;
+  }
+
+  public long getMoveTimeMillis() {
+    return this.moveTimeMillis;
+  }
+
+  public long getMaxNodes() {
+    return this.maxNodes;
+  }
+
+  public boolean hasMoveTime() {
+    return this.moveTimeMillis > 0;
+  }
+
+  public boolean hasMaxNodes() {
+    return this.maxNodes > 0;
+  }
+
+  @Override
+  public String toString() {
+    return "depth " + this.maxDepth + ", time " + this.moveTimeMillis + "ms, nodes " + this.maxNodes;
+  }
+
+  public static class Builder {
+
+    int maxDepth = MAX_DEPTH;
+    long moveTimeMillis;
+    long maxNodes;
+
+    public Builder setMaxDepth(final int maxDepth) {
+      this.maxDepth = Math.min(Math.max(maxDepth, 1), MAX_DEPTH);
+      return this;
+    }
+
+    public Builder setMoveTime(final long moveTimeMillis) {
+      this.moveTimeMillis = moveTimeMillis;
+      return this;
+    }
+
+    public Builder setMaxNodes(final long maxNodes) {
+      this.maxNodes = maxNodes;
+      return this;
+    }
+
+    public SearchLimits build() {
+      return new SearchLimits(this);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.chess.engine.player.AI;
+
+/**
+ * Follows a search as it runs. Called on the searching thread, so it should
+ * return quickly; each call gets its own {@link SearchStats#snapshot()}.
+ */
+public interface SearchListener {
+
+  /**
+   * A depth has been searched to the end.
+   */
+  default void onIteration(final SearchStats stats) {
+  }
+
+  /**
+   * The search is over and has picked its move.
+   */
+  default void onSearchFinished(final SearchStats stats) {
+  }
+}
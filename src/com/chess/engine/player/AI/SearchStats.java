@@ -0,0 +1,177 @@
+package com.chess.engine.player.AI;
+
+import com.chess.engine.board.Move;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a search did: how many nodes it visited and how fast, how well its
+ * move ordering and transposition table worked, and where the last completed
+ * depth left it.
+ *
+ * The counters are plain fields only the searching thread touches. It copies
+ * them into a {@link #snapshot()} after every depth and at the end of the
+ * search, and hands the copy over through a volatile field; those copies are
+ * what {@link MoveStrategy#getSearchStats()} and {@link SearchListener} see,
+ * and they never change once published.
+ *
+ * Nodes are always counted, since node limits depend on them. Everything
+ * else can be switched off with {@link MoveStrategy#setStatsEnabled}, which
+ * a search reads once as it starts.
+ */
+public final class SearchStats {
+
+  long nodes;
+  long quiescenceNodes;
+  long betaCutoffs;
+  long firstMoveCutoffs;
+  long tableProbes;
+  long tableHits;
+  long tablebaseHits;
+  long elapsedMillis;
+  int depth;
+  int score;
+  long iterationNodes;
+  long previousIterationNodes;
+  long iterationMillis;
+  List<Move> principalVariation = Collections.emptyList();
+
+  public long getNodes() {
+    return this.nodes;
+  }
+
+  public long getQuiescenceNodes() {
+    return this.quiescenceNodes;
+  }
+
+  public long getNodesPerSecond() {
+    return this.nodes * 1000 / Math.max(this.elapsedMillis, 1);
+  }
+
+  public long getElapsedMillis() {
+    return this.elapsedMillis;
+  }
+
+  /**
+   * The last depth completed, and its score for the side to move.
+   */
+  public int getDepth() {
+    return this.depth;
+  }
+
+  public int getScore() {
+    return this.score;
+  }
+
+  public long getIterationMillis() {
+    return this.iterationMillis;
+  }
+
+  /**
+   * How many times more nodes the last depth took than the one before, or
+   * 0 before there are two depths to compare.
+   */
+  public double getEffectiveBranchingFactor() {
+    return this.previousIterationNodes == 0 ? 0 : (double) this.iterationNodes / this.previousIterationNodes;
+  }
+
+  public long getBetaCutoffs() {
+    return this.betaCutoffs;
+  }
+
+  /**
+   * The share of cutoffs found by the first move searched, a measure of how
+   * good the move ordering is.
+   */
+  public double getFirstMoveCutoffRate() {
+    return this.betaCutoffs == 0 ? 0 : (double) this.firstMoveCutoffs / this.betaCutoffs;
+  }
+
+  public long getTableProbes() {
+    return this.tableProbes;
+  }
+
+  public double getTableHitRate() {
+    return this.tableProbes == 0 ? 0 : (double) this.tableHits / this.tableProbes;
+  }
+
+  /**
+   * How many nodes were scored by the endgame tablebase.
+   */
+  public long getTablebaseHits() {
+    return this.tablebaseHits;
+  }
+
+  public List<Move> getPrincipalVariation() {
+    return this.principalVariation;
+  }
+
+  public SearchStats snapshot() {
+    final SearchStats copy = new SearchStats();
+    copy.nodes = this.nodes;
+    copy.quiescenceNodes = this.quiescenceNodes;
+    copy.betaCutoffs = this.betaCutoffs;
+    copy.firstMoveCutoffs = this.firstMoveCutoffs;
+    copy.tableProbes = this.tableProbes;
+    copy.tableHits = this.tableHits;
+    copy.tablebaseHits = this.tablebaseHits;
+    copy.elapsedMillis = this.elapsedMillis;
+    copy.depth = this.depth;
+    copy.score = this.score;
+    copy.iterationNodes = this.iterationNodes;
+    copy.previousIterationNodes = this.previousIterationNodes;
+    copy.iterationMillis = this.iterationMillis;
+    copy.principalVariation = this.principalVariation;
+    return copy;
+  }
+
+  void reset() {
+    this.nodes = 0;
+    this.quiescenceNodes = 0;
+    this.betaCutoffs = 0;
+    this.firstMoveCutoffs = 0;
+    this.tableProbes = 0;
+    this.tableHits = 0;
+    this.tablebaseHits = 0;
+    this.elapsedMillis = 0;
+    this.depth = 0;
+    this.score = 0;
+    this.iterationNodes = 0;
+    this.previousIterationNodes = 0;
+    this.iterationMillis = 0;
+    this.principalVariation = Collections.emptyList();
+  }
+
+  /**
+   * Records a completed depth, given how many nodes and milliseconds it took.
+   */
+  void completeIteration(final int depth, final int score, final long nodes, final long millis) {
+    this.depth = depth;
+    this.score = score;
+    this.previousIterationNodes = this.iterationNodes;
+    this.iterationNodes = nodes;
+    this.iterationMillis = millis;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("depth ").append(this.depth)
+        .append(" score ").append(this.score)
+        .append(" nodes ").append(this.nodes)
+        .append(" nps ").append(getNodesPerSecond())
+        .append(" time ").append(this.elapsedMillis)
+        .append(String.format(" ebf %.2f", getEffectiveBranchingFactor()))
+        .append(String.format(" cutoffs %.0f%%", getFirstMoveCutoffRate() * 100))
+        .append(String.format(" hash %.0f%%", getTableHitRate() * 100))
+        .append(" tbhits ").append(this.tablebaseHits);
+    if (!this.principalVariation.isEmpty()) {
+      builder.append(" pv");
+      for (final Move move : this.principalVariation) {
+        builder.append(' ').append(move);
+      }
+    }
+    return builder.toString();
+  }
+}
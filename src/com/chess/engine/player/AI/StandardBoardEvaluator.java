@@ -1,7 +1,12 @@
 package com.chess.engine.player.AI;
 
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.BitBoardUtils;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.SearchBoard;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
 import com.chess.engine.player.Player;
 
 public final class StandardBoardEvaluator implements BoardEvaluator {
@@ -18,6 +23,37 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
 
   }
 
+  @Override
+  public int evaluate(final SearchBoard board, final int depth) {
+
+    return scorePlayer(board, Alliance.WHITE, depth) - scorePlayer(board, Alliance.BLACK, depth);
+
+  }
+
+  // mirrors scorePlayer(Board, Player, int) so both boards score a position the same; Player.isCastled is
+  // not tracked yet, so there is no castle bonus to carry over
+  private static int scorePlayer(final SearchBoard board, final Alliance alliance, final int depth) {
+    return pieceValue(board, alliance) + board.countMoves(alliance) + check(board, alliance)
+        + checkMate(board, alliance, depth);
+  }
+
+  private static int check(final SearchBoard board, final Alliance alliance) {
+    return board.isInCheck(alliance.getOpponent()) ? CHECK_BONUS : 0;
+  }
+
+  private static int checkMate(final SearchBoard board, final Alliance alliance, final int depth) {
+    return board.getSideToMove() != alliance && board.isInCheckMate() ? CHECKMATE_BONUS * depthBonus(depth) : 0;
+  }
+
+  private static int pieceValue(final SearchBoard board, final Alliance alliance) {
+    final BitBoard bitBoard = board.getBitBoard();
+    int pieceValueScore = 0;
+    for (final PieceType pieceType : PieceType.values()) {
+      pieceValueScore += BitBoardUtils.count(bitBoard.getPieces(alliance, pieceType)) * pieceType.getPieceValue();
+    }
+    return pieceValueScore;
+  }
+
   private int scorePlayer(final Board board, final Player player, final int depth) {
     return pieceValue(player) + mobility(player) + check(player) + checkMate(player, depth) + castled(player);
     // +checkmate , check, castled, mobility
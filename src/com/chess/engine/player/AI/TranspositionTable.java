@@ -0,0 +1,132 @@
+package com.chess.engine.player.AI;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size cache of search results keyed by {@link
+ * com.chess.engine.board.Zobrist} key, stored entirely in one {@code long[]}
+ * so even a very large table is a single object to the garbage collector.
+ *
+ * Each entry is two longs: the key XORed with the data, then the data, which
+ * packs the score, remaining depth, bound type, best move and search
+ * generation. A reader only trusts an entry whose two halves XOR back to the
+ * key it asked for, so threads can share the table without locks: a torn or
+ * half-written entry simply looks like a miss.
+ *
+ * Entries come in buckets of two. The first slot keeps the deepest result
+ * seen for the current search; the second always takes the newest one.
+ */
+public final class TranspositionTable {
+
+  public static final int EXACT = 1;
+  public static final int LOWER_BOUND = 2;
+  public static final int UPPER_BOUND = 3;
+
+  public static final long NO_ENTRY = 0L;
+
+  private static final int BYTES_PER_ENTRY = 16;
+  private static final int LONGS_PER_BUCKET = 4;
+
+  private static final int MOVE_BITS = 20;
+  private static final int DEPTH_SHIFT = 20;
+  private static final int BOUND_SHIFT = 28;
+  private static final int GENERATION_SHIFT = 30;
+  private static final int SCORE_SHIFT = 32;
+
+  private final long[] slots;
+  private final long bucketMask;
+  private int generation;
+
+  public TranspositionTable(final int sizeInMegabytes) {
+    final long entries = Math.max((long) sizeInMegabytes * 1024 * 1024 / BYTES_PER_ENTRY, 2);
+    // a power of two number of buckets, as large as fits in the budget and in one array
+    long buckets = Long.highestOneBit(entries / 2);
+    while (buckets * LONGS_PER_BUCKET > Integer.MAX_VALUE - 8) {
+      buckets >>>= 1;
+    }
+    this.slots = new long[(int) (buckets * LONGS_PER_BUCKET)];
+    this.bucketMask = buckets - 1;
+  }
+
+  /**
+   * The data stored for the key, or {@link #NO_ENTRY} when there is none.
+   */
+  public long probe(final long key) {
+    final int bucket = bucketIndex(key);
+    for (int slot = bucket; slot < bucket + LONGS_PER_BUCKET; slot += 2) {
+      final long data = this.slots[slot + 1];
+      if ((this.slots[slot] ^ data) == key && data != NO_ENTRY) {
+        return data;
+      }
+    }
+    return NO_ENTRY;
+  }
+
+  public void store(final long key, final int move, final int score, final int depth, final int bound) {
+    final int bucket = bucketIndex(key);
+    final long data = pack(move, score, depth, bound, this.generation);
+    final long deepData = this.slots[bucket + 1];
+    final boolean sameKey = (this.slots[bucket] ^ deepData) == key;
+    if (sameKey
+        || deepData == NO_ENTRY
+        || getGeneration(deepData) != this.generation
+        || depth >= getDepth(deepData)) {
+      write(bucket, key, data);
+    } else {
+      write(bucket + 2, key, data);
+    }
+  }
+
+  /**
+   * Marks the entries written so far as belonging to an older search, so
+   * deep but stale results give way to new ones.
+   */
+  public void newSearch() {
+    this.generation = (this.generation + 1) & 3;
+  }
+
+  public void clear() {
+    Arrays.fill(this.slots, 0L);
+  }
+
+  public int getCapacity() {
+    return this.slots.length / 2;
+  }
+
+  public static int getMove(final long data) {
+    return (int) (data & ((1L << MOVE_BITS) - 1));
+  }
+
+  public static int getDepth(final long data) {
+    return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+  }
+
+  public static int getBound(final long data) {
+    return (int) ((data >>> BOUND_SHIFT) & 3);
+  }
+
+  public static int getScore(final long data) {
+    return (int) (data >> SCORE_SHIFT);
+  }
+
+  private static int getGeneration(final long data) {
+    return (int) ((data >>> GENERATION_SHIFT) & 3);
+  }
+
+  private static long pack(final int move, final int score, final int depth, final int bound, final int generation) {
+    return (move & ((1L << MOVE_BITS) - 1))
+        | ((long) (depth & 0xFF) << DEPTH_SHIFT)
+        | ((long) bound << BOUND_SHIFT)
+        | ((long) generation << GENERATION_SHIFT)
+        | ((long) score << SCORE_SHIFT);
+  }
+
+  private void write(final int slot, final long key, final long data) {
+    this.slots[slot] = key ^ data;
+    this.slots[slot + 1] = data;
+  }
+
+  private int bucketIndex(final long key) {
+    return (int) (key & this.bucketMask) * LONGS_PER_BUCKET;
+  }
+}
@@ -10,7 +10,6 @@ import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Move.KingSideCastleMove;
 import com.chess.engine.board.Move.QueenSideCastleMove;
-import com.chess.engine.board.chessTile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
  
@@ -24,8 +23,8 @@ import java.util.List;
  */
 public class BlackPlayer extends Player {
 
-    public BlackPlayer(final Board board, final Collection<Move> blackStandardLegalMoves, final Collection<Move> whiteStandardLegalMoves) {
-        super(board, blackStandardLegalMoves, whiteStandardLegalMoves);
+    public BlackPlayer(final Board board) {
+        super(board);
     }
 
     @Override
@@ -44,43 +43,42 @@ public class BlackPlayer extends Player {
     }
 
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals,
-            final Collection<Move> opponentsLegals) {
+    protected Collection<Move> calculateKingCastles() {
         final List<Move> kingCastles = new ArrayList<>();
 
         if (this.playerKing.isFirstMove() && !this.isInCheck()) {
             //black king side castle
-            if (!this.board.getTile(5).isTileOccupied() && !this.board.getTile(6).isTileOccupied()) {
-                final chessTile rookTile = this.board.getTile(7);
-                if (rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    if (Player.calculateAttacksOnTile(5, opponentsLegals).isEmpty()
-                            && Player.calculateAttacksOnTile(6, opponentsLegals).isEmpty()
-                            && rookTile.getPiece().getPieceType().isRook()) {
+            if (!this.board.isTileOccupied(5) && !this.board.isTileOccupied(6)) {
+                final Piece rookPiece = this.board.getPiece(7);
+                if (rookPiece != null && rookPiece.isFirstMove()) {
+                    if (!this.board.isSquareAttacked(5, Alliance.WHITE)
+                            && !this.board.isSquareAttacked(6, Alliance.WHITE)
+                            && rookPiece.getPieceType().isRook()) {
                         kingCastles.add(new KingSideCastleMove(this.board,
                                 this.playerKing,
                                 6,
-                                (Rook) rookTile.getPiece(),
-                                rookTile.getTileCoordinate(),
+                                (Rook) rookPiece,
+                                rookPiece.getPiecePosition(),
                                 5));
                     }
 
                 }
             }
 
-            if (!this.board.getTile(1).isTileOccupied()
-                    && !this.board.getTile(2).isTileOccupied()
-                    && !this.board.getTile(3).isTileOccupied()) {
+            if (!this.board.isTileOccupied(1)
+                    && !this.board.isTileOccupied(2)
+                    && !this.board.isTileOccupied(3)) {
 
-                final chessTile rookTile = this.board.getTile(0);
-                if (rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()
-                        && Player.calculateAttacksOnTile(2, opponentsLegals).isEmpty()
-                        && Player.calculateAttacksOnTile(3, opponentsLegals).isEmpty()
-                        && rookTile.getPiece().getPieceType().isRook()) {
+                final Piece rookPiece = this.board.getPiece(0);
+                if (rookPiece != null && rookPiece.isFirstMove()
+                        && !this.board.isSquareAttacked(2, Alliance.WHITE)
+                        && !this.board.isSquareAttacked(3, Alliance.WHITE)
+                        && rookPiece.getPieceType().isRook()) {
                     kingCastles.add(new QueenSideCastleMove(this.board,
                             this.playerKing,
                             2,
-                            (Rook) rookTile.getPiece(),
-                            rookTile.getTileCoordinate(),
+                            (Rook) rookPiece,
+                            rookPiece.getPiecePosition(),
                             3));
                 }
             }
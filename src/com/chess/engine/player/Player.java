@@ -6,31 +6,40 @@
 package com.chess.engine.player;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoardUtils;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.LegalMoveGenerator;
 import com.chess.engine.board.Move;
 import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 public abstract class Player {
 
+    private static final int UNKNOWN = 0;
+    private static final int NOT_IN_CHECK = 1;
+    private static final int IN_CHECK = 2;
+    private static final int HAS_MOVES = 3;
+    private static final int NO_MOVES = 4;
+
     protected final Board board;
     protected final King playerKing;
-    protected final Collection<Move> legalMoves;
-    private final boolean isInCheck;
 
-    Player(final Board board,
-            final Collection<Move> legalMoves,
-            final Collection<Move> opponentMoves) {
+    // Computed on first use and kept for the lifetime of the board. Boards are
+    // shared between threads, so two threads may both compute a value; they
+    // get the same immutable result, which makes the race harmless.
+    private Collection<Move> legalMoves;
+    private int checkStatus;
+    private int escapeStatus;
+
+    Player(final Board board) {
         this.board = board;
         this.playerKing = establishKing();
-        final List<Move> combined = new ArrayList<>();
-        combined.addAll(legalMoves);
-        combined.addAll(calculateKingCastles(legalMoves, opponentMoves));
-        this.legalMoves = List.copyOf(combined);
-        this.isInCheck = !Player.calculateAttacksOnTile(this.playerKing.getPiecePosition(), opponentMoves).isEmpty();
+        this.checkStatus = UNKNOWN;
+        this.escapeStatus = UNKNOWN;
     }
 
     public King getPLayerKing() {
@@ -38,52 +47,55 @@ public abstract class Player {
     }
 
     public Collection<Move> getLegalMoves() {
-        return this.legalMoves;
-    }
-
-    protected static Collection<Move> calculateAttacksOnTile(int piecePosition, Collection<Move> moves) {
-        final List<Move> attackMoves = new ArrayList<>();
-        for (final Move move : moves) {
-            if (piecePosition == move.getDestinationCoordinate()) {
-                attackMoves.add(move);
+        Collection<Move> moves = this.legalMoves;
+        if (moves == null) {
+            final List<Move> combined = new ArrayList<>();
+            for (final Piece piece : getActivePieces()) {
+                combined.addAll(piece.calculateLegalMoves(this.board));
             }
+            combined.addAll(calculateKingCastles());
+            moves = List.copyOf(combined);
+            this.legalMoves = moves;
         }
-        return List.copyOf(attackMoves);
+        return moves;
     }
 
     private King establishKing() {
-        for (final Piece piece : getActivePieces()) {
-            if (piece.getPieceType().isKing()) {
-                return (King) piece;
-            }
+        final long kingBitBoard = this.board.getBitBoard().getPieces(getAlliance(), PieceType.KING);
+        if (kingBitBoard != 0) {
+            return (King) this.board.getPiece(BitBoardUtils.firstSquare(kingBitBoard));
         }
         throw new RuntimeException("Should not  reach here! Not a valid Board!!!");
     }
 
     public boolean isMoveLegal(final Move move) {
-        return this.legalMoves.contains(move);
+        return getLegalMoves().contains(move);
     }
 
     public boolean isInCheck() {
-        return this.isInCheck;
+        if (this.checkStatus == UNKNOWN) {
+            this.checkStatus = this.board.isSquareAttacked(this.playerKing.getPiecePosition(),
+                    getAlliance().getOpponent()) ? IN_CHECK : NOT_IN_CHECK;
+        }
+        return this.checkStatus == IN_CHECK;
     }
 
     public boolean isInCheckMate() {
-        return this.isInCheck && !hasEscapeMoves();
+        return isInCheck() && !hasEscapeMoves();
     }
 
     public boolean isInStaleMate() {
-        return !this.isInCheck && !hasEscapeMoves();
+        return !isInCheck() && !hasEscapeMoves();
     }
 
     protected boolean hasEscapeMoves() {
-        for (final Move move : this.legalMoves) {
-            final MoveTransition transition = makeMove(move);
-            if (transition.getMoveStatus().isDone()) {
-                return true;
-            }
+        if (this.escapeStatus == UNKNOWN) {
+            // only the side to move can capture en passant
+            final int enPassantSquare = this == this.board.currentPlayer() ? this.board.getEnPassantSquare() : -1;
+            this.escapeStatus = LegalMoveGenerator.hasLegalMoves(this.board.getBitBoard(), getAlliance(),
+                    this.board.getCastlingRights(), enPassantSquare) ? HAS_MOVES : NO_MOVES;
         }
-        return false;
+        return this.escapeStatus == HAS_MOVES;
     }
     //TODO implement methods below!!
 
@@ -98,10 +110,8 @@ public abstract class Player {
         }
         final Board transitionBoard = move.execute();
 
-        final Collection<Move> kingAttacks = Player.calculateAttacksOnTile(transitionBoard.currentPlayer().getOpponent().getPLayerKing().getPiecePosition(),
-                transitionBoard.currentPlayer().getLegalMoves());
-
-        if (!kingAttacks.isEmpty()) {
+        if (transitionBoard.isSquareAttacked(transitionBoard.currentPlayer().getOpponent().getPLayerKing().getPiecePosition(),
+                transitionBoard.currentPlayer().getAlliance())) {
             return new MoveTransition(this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
         }
 
@@ -114,6 +124,6 @@ public abstract class Player {
 
     public abstract Player getOpponent();
 
-    protected abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegals, Collection<Move> opponentsLegals);
+    protected abstract Collection<Move> calculateKingCastles();
 
 }
@@ -5,7 +5,6 @@ import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Move.KingSideCastleMove;
 import com.chess.engine.board.Move.QueenSideCastleMove;
-import com.chess.engine.board.chessTile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
 
@@ -15,8 +14,8 @@ import java.util.List;
 
 public class WhitePlayer extends Player {
 
-    public WhitePlayer(final Board board, final Collection<Move> whiteStandardLegalMoves, final Collection<Move> blackStandardLegalMoves) {
-        super(board, whiteStandardLegalMoves, blackStandardLegalMoves);
+    public WhitePlayer(final Board board) {
+        super(board);
     }
 
     @Override
@@ -35,43 +34,42 @@ public class WhitePlayer extends Player {
     }
 
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals,
-            final Collection<Move> opponentsLegals) {
+    protected Collection<Move> calculateKingCastles() {
         final List<Move> kingCastles = new ArrayList<>();
 
         if (this.playerKing.isFirstMove() && !this.isInCheck()) {
             //white king side castle
-            if (!this.board.getTile(61).isTileOccupied() && !this.board.getTile(62).isTileOccupied()) {
-                final chessTile rookTile = this.board.getTile(63);
-                if (rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    if (Player.calculateAttacksOnTile(61, opponentsLegals).isEmpty()
-                            && Player.calculateAttacksOnTile(62, opponentsLegals).isEmpty()
-                            && rookTile.getPiece().getPieceType().isRook()) {
+            if (!this.board.isTileOccupied(61) && !this.board.isTileOccupied(62)) {
+                final Piece rookPiece = this.board.getPiece(63);
+                if (rookPiece != null && rookPiece.isFirstMove()) {
+                    if (!this.board.isSquareAttacked(61, Alliance.BLACK)
+                            && !this.board.isSquareAttacked(62, Alliance.BLACK)
+                            && rookPiece.getPieceType().isRook()) {
                         kingCastles.add(new KingSideCastleMove(this.board,
                                 this.playerKing,
                                 62,
-                                (Rook) rookTile.getPiece(),
-                                rookTile.getTileCoordinate(),
+                                (Rook) rookPiece,
+                                rookPiece.getPiecePosition(),
                                 61));
                     }
 
                 }
             }
 
-            if (!this.board.getTile(59).isTileOccupied()
-                    && !this.board.getTile(58).isTileOccupied()
-                    && !this.board.getTile(57).isTileOccupied()) {
+            if (!this.board.isTileOccupied(59)
+                    && !this.board.isTileOccupied(58)
+                    && !this.board.isTileOccupied(57)) {
 
-                final chessTile rookTile = this.board.getTile(56);
-                if (rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()
-                        && Player.calculateAttacksOnTile(58, opponentsLegals).isEmpty()
-                        && Player.calculateAttacksOnTile(59, opponentsLegals).isEmpty()
-                        && rookTile.getPiece().getPieceType().isRook()) {
+                final Piece rookPiece = this.board.getPiece(56);
+                if (rookPiece != null && rookPiece.isFirstMove()
+                        && !this.board.isSquareAttacked(58, Alliance.BLACK)
+                        && !this.board.isSquareAttacked(59, Alliance.BLACK)
+                        && rookPiece.getPieceType().isRook()) {
                     kingCastles.add(new QueenSideCastleMove(this.board,
                             this.playerKing,
                             58,
-                            (Rook) rookTile.getPiece(),
-                            rookTile.getTileCoordinate(),
+                            (Rook) rookPiece,
+                            rookPiece.getPiecePosition(),
                             59));
                 }
             }
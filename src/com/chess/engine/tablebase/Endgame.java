@@ -0,0 +1,233 @@
+package com.chess.engine.tablebase;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The material of an ending, named like {@code KQvK}: the white pieces, then
+ * the black ones, each side led by its king and listed strongest first.
+ *
+ * The pieces are numbered in that order, and a position is indexed by the
+ * square of every piece, six bits each with the first piece lowest, with the
+ * side to move on top. Pieces on the same square and other impossible
+ * positions take up an index too; the table marks them illegal.
+ *
+ * Tables are only kept for the canonical side of an ending, where white is
+ * at least as strong as black. The other side is the same ending with the
+ * colors swapped and the board mirrored, see {@link #flip()}.
+ */
+public final class Endgame {
+
+    public static final int MAX_PIECES = 4;
+
+    private final PieceType[] whitePieces;
+    private final PieceType[] blackPieces;
+    private final String name;
+
+    private Endgame(final PieceType[] whitePieces, final PieceType[] blackPieces) {
+        this.whitePieces = strongestFirst(whitePieces);
+        this.blackPieces = strongestFirst(blackPieces);
+        this.name = "K" + letters(this.whitePieces) + "vK" + letters(this.blackPieces);
+    }
+
+    /**
+     * The ending with the given name, such as {@code KRvK} or {@code KPK}.
+     * The pieces after each king may come in any order.
+     */
+    public static Endgame of(final String name) {
+        final String text = name.toUpperCase();
+        final int split = text.indexOf('V') >= 0 ? text.indexOf('V') : text.indexOf('K', 1);
+        if (!text.startsWith("K") || split < 0) {
+            throw new IllegalArgumentException("not an ending: " + name);
+        }
+        final String black = text.substring(text.charAt(split) == 'V' ? split + 1 : split);
+        if (!black.startsWith("K")) {
+            throw new IllegalArgumentException("not an ending: " + name);
+        }
+        return of(parsePieces(text.substring(1, split), name), parsePieces(black.substring(1), name));
+    }
+
+    static Endgame of(final PieceType[] whitePieces, final PieceType[] blackPieces) {
+        if (2 + whitePieces.length + blackPieces.length > MAX_PIECES) {
+            throw new IllegalArgumentException("more than " + MAX_PIECES + " pieces");
+        }
+        return new Endgame(whitePieces, blackPieces);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getPieceCount() {
+        return 2 + this.whitePieces.length + this.blackPieces.length;
+    }
+
+    /**
+     * The number of indexes: every square for every piece, for either side
+     * to move.
+     */
+    public long getSize() {
+        return 2L << (6 * getPieceCount());
+    }
+
+    public Alliance getAlliance(final int piece) {
+        return piece <= this.whitePieces.length ? Alliance.WHITE : Alliance.BLACK;
+    }
+
+    public PieceType getPieceType(final int piece) {
+        if (piece == 0 || piece == this.whitePieces.length + 1) {
+            return PieceType.KING;
+        }
+        return piece <= this.whitePieces.length
+                ? this.whitePieces[piece - 1]
+                : this.blackPieces[piece - this.whitePieces.length - 2];
+    }
+
+    /**
+     * Whether this side of the ending is the one tables are kept for: white
+     * has more material, or the same material with the name ordering first.
+     */
+    public boolean isCanonical() {
+        final int whiteValue = value(this.whitePieces);
+        final int blackValue = value(this.blackPieces);
+        return whiteValue > blackValue
+                || (whiteValue == blackValue && letters(this.whitePieces).compareTo(letters(this.blackPieces)) >= 0);
+    }
+
+    /**
+     * The same ending with the colors swapped.
+     */
+    public Endgame flip() {
+        return new Endgame(this.blackPieces, this.whitePieces);
+    }
+
+    /**
+     * Whether neither side can possibly mate: bare kings, or a single knight
+     * or bishop. No table is kept for these.
+     */
+    public boolean isDrawnByMaterial() {
+        final int pieceCount = this.whitePieces.length + this.blackPieces.length;
+        if (pieceCount == 0) {
+            return true;
+        }
+        if (pieceCount > 1) {
+            return false;
+        }
+        final PieceType piece = this.whitePieces.length == 1 ? this.whitePieces[0] : this.blackPieces[0];
+        return piece == PieceType.KNIGHT || piece == PieceType.BISHOP;
+    }
+
+    /**
+     * The endings a capture or a promotion leads to from this one. Pawns only
+     * promote to queens, like everywhere else in the engine.
+     */
+    public List<Endgame> getSuccessors() {
+        final List<Endgame> successors = new ArrayList<>();
+        for (int i = 0; i < this.whitePieces.length; i++) {
+            successors.add(new Endgame(without(this.whitePieces, i), this.blackPieces));
+            if (this.whitePieces[i] == PieceType.PAWN) {
+                successors.add(new Endgame(promoted(this.whitePieces, i), this.blackPieces));
+            }
+        }
+        for (int i = 0; i < this.blackPieces.length; i++) {
+            successors.add(new Endgame(this.whitePieces, without(this.blackPieces, i)));
+            if (this.blackPieces[i] == PieceType.PAWN) {
+                successors.add(new Endgame(this.whitePieces, promoted(this.blackPieces, i)));
+            }
+        }
+        return successors;
+    }
+
+    public long index(final int[] squares, final Alliance sideToMove) {
+        long index = sideToMove.isWhite() ? 0 : 1;
+        for (int piece = squares.length - 1; piece >= 0; piece--) {
+            index = (index << 6) | squares[piece];
+        }
+        return index;
+    }
+
+    /**
+     * Fills in the square of every piece and returns the side to move.
+     */
+    public Alliance decode(final long index, final int[] squares) {
+        long rest = index;
+        for (int piece = 0; piece < squares.length; piece++) {
+            squares[piece] = (int) (rest & 63);
+            rest >>>= 6;
+        }
+        return rest == 0 ? Alliance.WHITE : Alliance.BLACK;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof Endgame && this.name.equals(((Endgame) other).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    private static PieceType[] parsePieces(final String letters, final String name) {
+        final PieceType[] pieces = new PieceType[letters.length()];
+        for (int i = 0; i < pieces.length; i++) {
+            for (final PieceType pieceType : PieceType.values()) {
+                if (!pieceType.isKing() && pieceType.toString().charAt(0) == letters.charAt(i)) {
+                    pieces[i] = pieceType;
+                }
+            }
+            if (pieces[i] == null) {
+                throw new IllegalArgumentException("not an ending: " + name);
+            }
+        }
+        return pieces;
+    }
+
+    // queen, rook, bishop, knight, pawn
+    private static PieceType[] strongestFirst(final PieceType[] pieces) {
+        final PieceType[] sorted = pieces.clone();
+        Arrays.sort(sorted, (first, second) -> second.ordinal() - first.ordinal());
+        return sorted;
+    }
+
+    private static String letters(final PieceType[] pieces) {
+        final StringBuilder letters = new StringBuilder();
+        for (final PieceType piece : pieces) {
+            letters.append(piece);
+        }
+        return letters.toString();
+    }
+
+    private static int value(final PieceType[] pieces) {
+        int value = 0;
+        for (final PieceType piece : pieces) {
+            value += piece.getPieceValue();
+        }
+        return value;
+    }
+
+    private static PieceType[] without(final PieceType[] pieces, final int removed) {
+        final PieceType[] rest = new PieceType[pieces.length - 1];
+        for (int i = 0, j = 0; i < pieces.length; i++) {
+            if (i != removed) {
+                rest[j++] = pieces[i];
+            }
+        }
+        return rest;
+    }
+
+    private static PieceType[] promoted(final PieceType[] pieces, final int pawn) {
+        final PieceType[] promoted = pieces.clone();
+        promoted[pawn] = PieceType.QUEEN;
+        return promoted;
+    }
+}
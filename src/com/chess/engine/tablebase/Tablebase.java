@@ -0,0 +1,258 @@
+package com.chess.engine.tablebase;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.BitBoardUtils;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Looks up endings in the distance to mate tables a {@link TablebaseGenerator}
+ * wrote to a directory. Each table is memory-mapped the first time a position
+ * of its ending comes up and stays mapped. Tables are cached by the material
+ * on the board, counted straight from the bitboards, so a lookup allocates
+ * nothing and is a single read from the mapping. A table that is not there is
+ * remembered as missing until {@link #refresh()}. Probes are safe from any
+ * number of threads.
+ *
+ * A table holds one byte per {@link Endgame} index: {@link #DRAW},
+ * {@link #ILLEGAL}, or the number of plies to mate plus one, which is even
+ * when the side to move wins and odd when it gets mated. Castling and en
+ * passant rights are not part of the positions, and a pawn only ever
+ * promotes to a queen, as in the rest of the engine, so an ending that needs
+ * an underpromotion to win reads as slower or drawn.
+ */
+public final class Tablebase {
+
+    public static final String FILE_EXTENSION = ".dtm";
+
+    /**
+     * The ending has no table in the directory, or too many pieces.
+     */
+    public static final int UNKNOWN = -1;
+    public static final int DRAW = 0;
+    public static final int ILLEGAL = 255;
+
+    // one slot for every material with up to MAX_PIECES - 2 pieces besides the kings
+    private static final int MATERIAL_RADIX = BitBoard.NUM_PIECE_INDEXES + 1;
+    private static final int NUM_MATERIALS = (int) Math.pow(MATERIAL_RADIX, Endgame.MAX_PIECES - 2);
+    private static final int NO_MATERIAL = -1;
+    private static final Table MISSING = new Table(null, false, null);
+    private static final Table DRAWN = new Table(null, false, null);
+
+    private final Path directory;
+    private final AtomicReferenceArray<Table> tables = new AtomicReferenceArray<>(NUM_MATERIALS);
+
+    public Tablebase(final Path directory) {
+        this.directory = directory;
+    }
+
+    public static boolean isWin(final int value) {
+        return value > 0 && value != ILLEGAL && value % 2 == 0;
+    }
+
+    public static boolean isLoss(final int value) {
+        return value > 0 && value != ILLEGAL && value % 2 == 1;
+    }
+
+    /**
+     * How many plies a won or lost position is from mate.
+     */
+    public static int getPlies(final int value) {
+        return value - 1;
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Forgets which tables were missing, so tables written to the directory
+     * since are found. Tables already mapped stay mapped.
+     */
+    public void refresh() {
+        for (int material = 0; material < NUM_MATERIALS; material++) {
+            this.tables.compareAndSet(material, MISSING, null);
+        }
+    }
+
+    /**
+     * The result for the side to move, or {@link #UNKNOWN}.
+     */
+    public int probe(final SearchBoard board) {
+        final BitBoard bitBoard = board.getBitBoard();
+        if (BitBoardUtils.count(bitBoard.getOccupied()) > Endgame.MAX_PIECES) {
+            return UNKNOWN;
+        }
+        long counts = 0;
+        for (int index = 0; index < BitBoard.NUM_PIECE_INDEXES; index++) {
+            counts += (long) BitBoardUtils.count(bitBoard.getPieces(index)) << (4 * index);
+        }
+        final Table table = getTable(counts);
+        if (table == DRAWN) {
+            return DRAW;
+        }
+        if (table == MISSING) {
+            return UNKNOWN;
+        }
+        long index = table.flipped == board.getSideToMove().isWhite() ? 1 : 0;
+        for (int piece = table.pieceIndexes.length - 1; piece >= 0; piece--) {
+            long pieces = bitBoard.getPieces(table.pieceIndexes[piece]);
+            for (int skipped = 0; skipped < table.occurrences[piece]; skipped++) {
+                pieces = BitBoardUtils.clearFirstSquare(pieces);
+            }
+            index = (index << 6) | table.square(BitBoardUtils.firstSquare(pieces));
+        }
+        return table.values.get((int) index) & 0xFF;
+    }
+
+    /**
+     * The result for the side to move in the position with a piece, given
+     * by its {@link BitBoard#index}, on each of the squares.
+     */
+    int probe(final int[] pieceIndexes, final int[] squares, final Alliance sideToMove) {
+        if (pieceIndexes.length > Endgame.MAX_PIECES) {
+            return UNKNOWN;
+        }
+        long counts = 0;
+        for (final int pieceIndex : pieceIndexes) {
+            counts += 1L << (4 * pieceIndex);
+        }
+        final Table table = getTable(counts);
+        if (table == DRAWN) {
+            return DRAW;
+        }
+        if (table == MISSING) {
+            return UNKNOWN;
+        }
+        long index = table.flipped == sideToMove.isWhite() ? 1 : 0;
+        for (int piece = table.pieceIndexes.length - 1; piece >= 0; piece--) {
+            int occurrence = table.occurrences[piece];
+            int square = -1;
+            for (int i = 0; square < 0; i++) {
+                if (pieceIndexes[i] == table.pieceIndexes[piece] && occurrence-- == 0) {
+                    square = squares[i];
+                }
+            }
+            index = (index << 6) | table.square(square);
+        }
+        return table.values.get((int) index) & 0xFF;
+    }
+
+    static Path getPath(final Path directory, final Endgame endgame) {
+        return directory.resolve(endgame.getName() + FILE_EXTENSION);
+    }
+
+    // the table for the piece counts, four bits per piece index; MISSING when
+    // the directory has none, and DRAWN for a material that is a dead draw
+    private Table getTable(final long counts) {
+        final int material = materialOf(counts);
+        if (material == NO_MATERIAL) {
+            return MISSING;
+        }
+        Table table = this.tables.get(material);
+        if (table == null) {
+            final Table loaded = load(counts);
+            if (this.tables.compareAndSet(material, null, loaded)) {
+                return loaded;
+            }
+            // another thread got there first
+            table = this.tables.get(material);
+            return table != null ? table : loaded;
+        }
+        return table;
+    }
+
+    // both kings, and the other pieces as digits in the order of their indexes
+    private static int materialOf(final long counts) {
+        int material = 0;
+        for (int index = 0; index < BitBoard.NUM_PIECE_INDEXES; index++) {
+            final int count = (int) (counts >>> (4 * index)) & 0xF;
+            if (BitBoard.pieceTypeOf(index).isKing()) {
+                if (count != 1) {
+                    return NO_MATERIAL;
+                }
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                material = material * MATERIAL_RADIX + index + 1;
+            }
+        }
+        return material;
+    }
+
+    private Table load(final long counts) {
+        final List<PieceType> white = new ArrayList<>(Endgame.MAX_PIECES);
+        final List<PieceType> black = new ArrayList<>(Endgame.MAX_PIECES);
+        for (int index = 0; index < BitBoard.NUM_PIECE_INDEXES; index++) {
+            final PieceType pieceType = BitBoard.pieceTypeOf(index);
+            for (long count = (counts >>> (4 * index)) & 0xF; count > 0 && !pieceType.isKing(); count--) {
+                (BitBoard.allianceOf(index).isWhite() ? white : black).add(pieceType);
+            }
+        }
+        final Endgame endgame = Endgame.of(white.toArray(new PieceType[0]), black.toArray(new PieceType[0]));
+        if (endgame.isDrawnByMaterial()) {
+            return DRAWN;
+        }
+        // the other side's table, seen from the other side of the board
+        final boolean flipped = !endgame.isCanonical();
+        final Endgame canonical = flipped ? endgame.flip() : endgame;
+        final ByteBuffer values = map(getPath(this.directory, canonical));
+        return values == null ? MISSING : new Table(canonical, flipped, values);
+    }
+
+    private static ByteBuffer map(final Path path) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A mapped table and where to find each of its pieces on the board: the
+     * piece index, and which of the pieces with that index it is.
+     */
+    private static final class Table {
+
+        private final boolean flipped;
+        private final ByteBuffer values;
+        private final int[] pieceIndexes;
+        private final int[] occurrences;
+
+        Table(final Endgame endgame, final boolean flipped, final ByteBuffer values) {
+            this.flipped = flipped;
+            this.values = values;
+            final int pieceCount = endgame == null ? 0 : endgame.getPieceCount();
+            this.pieceIndexes = new int[pieceCount];
+            this.occurrences = new int[pieceCount];
+            for (int piece = 0; piece < pieceCount; piece++) {
+                final Alliance alliance = flipped ? endgame.getAlliance(piece).getOpponent() : endgame.getAlliance(piece);
+                this.pieceIndexes[piece] = BitBoard.index(alliance, endgame.getPieceType(piece));
+                for (int before = 0; before < piece; before++) {
+                    if (this.pieceIndexes[before] == this.pieceIndexes[piece]) {
+                        this.occurrences[piece]++;
+                    }
+                }
+            }
+        }
+
+        int square(final int boardSquare) {
+            return this.flipped ? boardSquare ^ 56 : boardSquare;
+        }
+    }
+}
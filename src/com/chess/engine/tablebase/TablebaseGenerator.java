@@ -0,0 +1,412 @@
+package com.chess.engine.tablebase;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.AttackTables;
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.BitBoardUtils;
+import com.chess.engine.board.MagicBitBoards;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Builds distance to mate tables for a {@link Tablebase} by retrograde
+ * analysis. The endings a capture or promotion leads to are built first, and
+ * every table is then solved in passes over all of its positions:
+ *
+ * <ol>
+ * <li>positions that cannot occur are marked illegal, mates as lost in 0 and
+ * stalemates as drawn;</li>
+ * <li>pass n marks as won in n plies every position with a move to one lost
+ * in n - 1 when n is odd, and as lost in n plies every position whose moves
+ * all lead to positions won in at most n - 1 when n is even;</li>
+ * <li>once the passes stop finding anything, what is left is drawn.</li>
+ * </ol>
+ *
+ * Castling and en passant are left out, and pawns promote to a queen only, so
+ * the tables are exact for the moves this engine plays rather than for every
+ * legal move.
+ *
+ * Each pass is split into ranges of indexes searched in parallel. A pass only
+ * uses results of the passes before it, so the ranges need no locking. The
+ * threads belong to the generator until it is closed.
+ *
+ * Usage: {@code TablebaseGenerator [-threads n] directory KQvK KRvK KPvK ...}
+ */
+public final class TablebaseGenerator implements AutoCloseable {
+
+    private static final int MAX_PLIES = 252;
+    private static final int UNRESOLVED = 254;
+    private static final int NOT_LEGAL = -2;
+    private static final int RANGE_SIZE = 1 << 16;
+    private static final long PAWN_RANKS = BitBoardUtils.FIRST_RANK | BitBoardUtils.EIGHTH_RANK;
+
+    private final Path directory;
+    private final ForkJoinPool pool;
+    private final Tablebase tablebase;
+
+    public TablebaseGenerator(final Path directory, final int threadCount) {
+        this.directory = directory;
+        this.pool = new ForkJoinPool(Math.max(threadCount, 1));
+        this.tablebase = new Tablebase(directory);
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-threads")) {
+                threadCount = Integer.parseInt(args[++i]);
+            } else {
+                names.add(args[i]);
+            }
+        }
+        if (names.size() < 2) {
+            System.err.println("usage: TablebaseGenerator [-threads n] directory KQvK KRvK KPvK ...");
+            System.exit(1);
+        }
+        final Path directory = Paths.get(names.get(0));
+        Files.createDirectories(directory);
+        try (TablebaseGenerator generator = new TablebaseGenerator(directory, threadCount)) {
+            for (final String name : names.subList(1, names.size())) {
+                for (final GeneratedTable table : generator.generate(Endgame.of(name))) {
+                    System.out.println(table);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the table of the ending, and of every ending it leads to, unless
+     * it is already in the directory. Returns the tables it wrote, the ones
+     * the ending leads to first.
+     */
+    public List<GeneratedTable> generate(final Endgame endgame) throws IOException {
+        final List<GeneratedTable> generated = new ArrayList<>();
+        generate(endgame, generated);
+        return generated;
+    }
+
+    /**
+     * Stops the generator's threads.
+     */
+    @Override
+    public void close() {
+        this.pool.shutdown();
+    }
+
+    private void generate(final Endgame endgame, final List<GeneratedTable> generated) throws IOException {
+        final Endgame table = endgame.isCanonical() ? endgame : endgame.flip();
+        final Path path = Tablebase.getPath(this.directory, table);
+        if (table.isDrawnByMaterial() || Files.exists(path)) {
+            return;
+        }
+        int maxSuccessorPlies = 0;
+        for (final Endgame successor : table.getSuccessors()) {
+            generate(successor, generated);
+            maxSuccessorPlies = Math.max(maxSuccessorPlies, maxPlies(successor));
+        }
+        final long startTime = System.currentTimeMillis();
+        final byte[] values = solve(table, maxSuccessorPlies);
+        // written under another name first so a half-written table is never found
+        final Path partial = this.directory.resolve(table.getName() + ".partial");
+        Files.write(partial, values);
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING);
+        generated.add(new GeneratedTable(table, maxPlies(values), System.currentTimeMillis() - startTime));
+    }
+
+    private byte[] solve(final Endgame endgame, final int maxSuccessorPlies) {
+        final byte[] values = new byte[(int) endgame.getSize()];
+        pass(endgame, values, 0);
+        int idlePasses = 0;
+        for (int plies = 1; plies <= MAX_PLIES && idlePasses < 2; plies++) {
+            final long changed = pass(endgame, values, plies);
+            // a capture may still lead to a longer mate in another table
+            idlePasses = changed == 0 && plies > maxSuccessorPlies + 1 ? idlePasses + 1 : 0;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if ((values[i] & 0xFF) == UNRESOLVED) {
+                values[i] = Tablebase.DRAW;
+            }
+        }
+        return values;
+    }
+
+    // runs one pass over every range of indexes and returns how many positions it resolved
+    private long pass(final Endgame endgame, final byte[] values, final int plies) {
+        final List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+        for (long start = 0; start < values.length; start += RANGE_SIZE) {
+            final long from = start;
+            final long to = Math.min(start + RANGE_SIZE, values.length);
+            tasks.add(this.pool.submit(() -> new Solver(endgame, values).pass(from, to, plies)));
+        }
+        long changed = 0;
+        for (final ForkJoinTask<Long> task : tasks) {
+            changed += task.join();
+        }
+        return changed;
+    }
+
+    private int maxPlies(final Endgame endgame) throws IOException {
+        final Endgame table = endgame.isCanonical() ? endgame : endgame.flip();
+        return table.isDrawnByMaterial() ? 0 : maxPlies(Files.readAllBytes(Tablebase.getPath(this.directory, table)));
+    }
+
+    private static int maxPlies(final byte[] values) {
+        int maxPlies = 0;
+        for (final byte value : values) {
+            final int unsigned = value & 0xFF;
+            if (unsigned != Tablebase.ILLEGAL && unsigned != Tablebase.DRAW) {
+                maxPlies = Math.max(maxPlies, Tablebase.getPlies(unsigned));
+            }
+        }
+        return maxPlies;
+    }
+
+    /**
+     * A table the generator wrote: its ending, its longest mate, and how long
+     * it took to solve.
+     */
+    public static final class GeneratedTable {
+
+        private final Endgame endgame;
+        private final int longestMatePlies;
+        private final long millis;
+
+        GeneratedTable(final Endgame endgame, final int longestMatePlies, final long millis) {
+            this.endgame = endgame;
+            this.longestMatePlies = longestMatePlies;
+            this.millis = millis;
+        }
+
+        public Endgame getEndgame() {
+            return this.endgame;
+        }
+
+        public int getLongestMatePlies() {
+            return this.longestMatePlies;
+        }
+
+        public long getMillis() {
+            return this.millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: longest mate %d plies, %d ms", this.endgame, this.longestMatePlies, this.millis);
+        }
+    }
+
+    /**
+     * Solves the positions of one range, with its own scratch space.
+     */
+    private final class Solver {
+
+        private final Endgame endgame;
+        private final byte[] values;
+        private final int[] squares;
+        private final int[] childSquares;
+
+        Solver(final Endgame endgame, final byte[] values) {
+            this.endgame = endgame;
+            this.values = values;
+            this.squares = new int[endgame.getPieceCount()];
+            this.childSquares = new int[endgame.getPieceCount()];
+        }
+
+        long pass(final long from, final long to, final int plies) {
+            long changed = 0;
+            for (long index = from; index < to; index++) {
+                if (plies > 0 && (this.values[(int) index] & 0xFF) != UNRESOLVED) {
+                    continue;
+                }
+                if (plies == 0) {
+                    this.values[(int) index] = (byte) classify(index);
+                    continue;
+                }
+                final int value = solve(index, plies);
+                if (value != UNRESOLVED) {
+                    this.values[(int) index] = (byte) value;
+                    changed++;
+                }
+            }
+            return changed;
+        }
+
+        // the first pass: illegal, mated, stalemated or still to be solved
+        private int classify(final long index) {
+            final Alliance sideToMove = this.endgame.decode(index, this.squares);
+            long occupied = 0;
+            for (int piece = 0; piece < this.squares.length; piece++) {
+                final long bit = BitBoardUtils.squareBit(this.squares[piece]);
+                if ((occupied & bit) != 0
+                        || (this.endgame.getPieceType(piece) == PieceType.PAWN && (bit & PAWN_RANKS) != 0)) {
+                    return Tablebase.ILLEGAL;
+                }
+                occupied |= bit;
+            }
+            if (isAttacked(this.squares, kingSquare(this.squares, sideToMove.getOpponent()), sideToMove, -1, occupied)) {
+                return Tablebase.ILLEGAL;
+            }
+            if (searchMoves(sideToMove, occupied, 0) > 0) {
+                return UNRESOLVED;
+            }
+            final boolean inCheck = isAttacked(this.squares, kingSquare(this.squares, sideToMove),
+                    sideToMove.getOpponent(), -1, occupied);
+            // mated in 0 plies is stored as 1
+            return inCheck ? 1 : Tablebase.DRAW;
+        }
+
+        private int solve(final long index, final int plies) {
+            final Alliance sideToMove = this.endgame.decode(index, this.squares);
+            long occupied = 0;
+            for (final int square : this.squares) {
+                occupied |= BitBoardUtils.squareBit(square);
+            }
+            return searchMoves(sideToMove, occupied, plies) > 0 ? plies + 1 : UNRESOLVED;
+        }
+
+        /**
+         * Goes through the legal moves. In the first pass it counts them; in a
+         * pass for a win it returns 1 as soon as a move reaches a position lost
+         * in one ply less, and in a pass for a loss it returns 0 as soon as a
+         * move escapes a win in fewer plies. 1 means the position is resolved.
+         */
+        private int searchMoves(final Alliance sideToMove, final long occupied, final int plies) {
+            final boolean findWin = plies % 2 == 1;
+            int moves = 0;
+            for (int piece = 0; piece < this.squares.length; piece++) {
+                if (this.endgame.getAlliance(piece) != sideToMove) {
+                    continue;
+                }
+                long targets = targets(piece, sideToMove, occupied);
+                while (targets != 0) {
+                    final int to = BitBoardUtils.firstSquare(targets);
+                    targets = BitBoardUtils.clearFirstSquare(targets);
+                    final int child = childValue(piece, to, sideToMove, occupied);
+                    if (child == NOT_LEGAL) {
+                        continue;
+                    }
+                    moves++;
+                    if (plies == 0) {
+                        continue;
+                    }
+                    if (findWin && child == plies) {
+                        return 1;
+                    }
+                    if (!findWin && !(Tablebase.isWin(child) && child <= plies)) {
+                        return 0;
+                    }
+                }
+            }
+            return plies == 0 ? moves : findWin ? 0 : 1;
+        }
+
+        private long targets(final int piece, final Alliance sideToMove, final long occupied) {
+            final int from = this.squares[piece];
+            long own = 0;
+            for (int other = 0; other < this.squares.length; other++) {
+                if (this.endgame.getAlliance(other) == sideToMove) {
+                    own |= BitBoardUtils.squareBit(this.squares[other]);
+                }
+            }
+            final PieceType pieceType = this.endgame.getPieceType(piece);
+            if (pieceType == PieceType.PAWN) {
+                long pushes = AttackTables.pawnPushes(sideToMove, from) & ~occupied;
+                if (pushes != 0) {
+                    pushes |= AttackTables.pawnJumps(sideToMove, from) & ~occupied;
+                }
+                return pushes | (AttackTables.pawnAttacks(sideToMove, from) & occupied & ~own);
+            }
+            return attacks(pieceType, sideToMove, from, occupied) & ~own;
+        }
+
+        // the value of the position after the move, for the opponent, or NOT_LEGAL
+        private int childValue(final int piece, final int to, final Alliance sideToMove, final long occupied) {
+            int captured = -1;
+            for (int other = 0; other < this.squares.length; other++) {
+                if (other != piece && this.squares[other] == to) {
+                    captured = other;
+                }
+            }
+            System.arraycopy(this.squares, 0, this.childSquares, 0, this.squares.length);
+            this.childSquares[piece] = to;
+            final long childOccupied = (occupied & ~BitBoardUtils.squareBit(this.squares[piece])) | BitBoardUtils.squareBit(to);
+            if (isAttacked(this.childSquares, kingSquare(this.childSquares, sideToMove), sideToMove.getOpponent(),
+                    captured, childOccupied)) {
+                return NOT_LEGAL;
+            }
+            final boolean promotion = this.endgame.getPieceType(piece) == PieceType.PAWN
+                    && (AttackTables.promotionSquares(sideToMove) & BitBoardUtils.squareBit(to)) != 0;
+            if (captured < 0 && !promotion) {
+                return this.values[(int) this.endgame.index(this.childSquares, sideToMove.getOpponent())] & 0xFF;
+            }
+            // the material changed: look the position up in the table of the new ending
+            final int count = captured < 0 ? this.squares.length : this.squares.length - 1;
+            final int[] pieceIndexes = new int[count];
+            final int[] pieceSquares = new int[count];
+            for (int other = 0, i = 0; other < this.squares.length; other++) {
+                if (other != captured) {
+                    final PieceType pieceType = other == piece && promotion ? PieceType.QUEEN : this.endgame.getPieceType(other);
+                    pieceIndexes[i] = BitBoard.index(this.endgame.getAlliance(other), pieceType);
+                    pieceSquares[i++] = this.childSquares[other];
+                }
+            }
+            final int value = tablebase.probe(pieceIndexes, pieceSquares, sideToMove.getOpponent());
+            if (value == Tablebase.UNKNOWN) {
+                throw new IllegalStateException("no table for a successor of " + this.endgame);
+            }
+            return value;
+        }
+
+        private int kingSquare(final int[] pieceSquares, final Alliance alliance) {
+            for (int piece = 0; piece < pieceSquares.length; piece++) {
+                if (this.endgame.getAlliance(piece) == alliance && this.endgame.getPieceType(piece).isKing()) {
+                    return pieceSquares[piece];
+                }
+            }
+            throw new IllegalStateException("no king in " + this.endgame);
+        }
+
+        private boolean isAttacked(final int[] pieceSquares,
+                                   final int square,
+                                   final Alliance attacker,
+                                   final int captured,
+                                   final long occupied) {
+            for (int piece = 0; piece < pieceSquares.length; piece++) {
+                if (piece != captured
+                        && this.endgame.getAlliance(piece) == attacker
+                        && (attacks(this.endgame.getPieceType(piece), attacker, pieceSquares[piece], occupied)
+                        & BitBoardUtils.squareBit(square)) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static long attacks(final PieceType pieceType, final Alliance alliance, final int square, final long occupied) {
+        switch (pieceType) {
+            case PAWN:
+                return AttackTables.pawnAttacks(alliance, square);
+            case KNIGHT:
+                return AttackTables.knightAttacks(square);
+            case BISHOP:
+                return MagicBitBoards.bishopAttacks(square, occupied);
+            case ROOK:
+                return MagicBitBoards.rookAttacks(square, occupied);
+            case QUEEN:
+                return MagicBitBoards.queenAttacks(square, occupied);
+            default:
+                return AttackTables.kingAttacks(square);
+        }
+    }
+}
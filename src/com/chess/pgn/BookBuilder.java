@@ -0,0 +1,493 @@
+package com.chess.pgn;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.AI.OpeningBook;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds an {@link OpeningBook} from PGN files.
+ *
+ * The files are read on the calling thread and handed out in batches of
+ * games to worker threads, which replay each game up to the ply limit and
+ * count wins, draws and losses for every move played from every position,
+ * seen from the side that played it. A worker holds at most a fixed number of
+ * position and move pairs; when it has that many it sorts them and spills
+ * them to a run file, so memory stays bounded however large the corpus is.
+ * The runs are then merged into the book. At most a fixed number of runs
+ * are open at once; when there are more, groups of them are first merged
+ * into longer runs, as many passes as it takes.
+ *
+ * A move gets the weight {@code 2 * wins + draws}, scaled down per position
+ * to fit in 16 bits. Moves that never scored, or that were played in fewer
+ * than the minimum number of games, are left out. Games with no result are
+ * skipped, and a game stops counting at the first move that cannot be read.
+ *
+ * Usage: {@code BookBuilder [-plies n] [-threads n] [-run entries] [-merge runs] [-min games] book.bin games.pgn...}
+ */
+public final class BookBuilder {
+
+    public static final int DEFAULT_PLY_LIMIT = 24;
+    public static final int DEFAULT_RUN_ENTRIES = 500000;
+    // each open run holds a file and a buffer
+    public static final int DEFAULT_MERGE_FAN_IN = 64;
+
+    private static final int BATCH_SIZE = 256;
+    private static final int MAX_WEIGHT = 0xFFFF;
+    // key, move and three counts
+    private static final int RUN_RECORD_SIZE = 8 + 2 + 3 * 4;
+    private static final List<PgnGame> END_OF_GAMES = Collections.emptyList();
+
+    private final int plyLimit;
+    private final int threadCount;
+    private final int runEntries;
+    private final int mergeFanIn;
+    private final int minGames;
+    private final AtomicLong replayedGames = new AtomicLong();
+    private final AtomicLong skippedGames = new AtomicLong();
+
+    public BookBuilder(final int plyLimit, final int threadCount, final int runEntries, final int minGames) {
+        this(plyLimit, threadCount, runEntries, DEFAULT_MERGE_FAN_IN, minGames);
+    }
+
+    public BookBuilder(final int plyLimit,
+                       final int threadCount,
+                       final int runEntries,
+                       final int mergeFanIn,
+                       final int minGames) {
+        this.plyLimit = plyLimit;
+        this.threadCount = Math.max(threadCount, 1);
+        this.runEntries = Math.max(runEntries, 1);
+        this.mergeFanIn = Math.max(mergeFanIn, 2);
+        this.minGames = minGames;
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        int plyLimit = DEFAULT_PLY_LIMIT;
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        int runEntries = DEFAULT_RUN_ENTRIES;
+        int mergeFanIn = DEFAULT_MERGE_FAN_IN;
+        int minGames = 1;
+        final List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-plies":
+                    plyLimit = Integer.parseInt(args[++i]);
+                    break;
+                case "-threads":
+                    threadCount = Integer.parseInt(args[++i]);
+                    break;
+                case "-run":
+                    runEntries = Integer.parseInt(args[++i]);
+                    break;
+                case "-merge":
+                    mergeFanIn = Integer.parseInt(args[++i]);
+                    break;
+                case "-min":
+                    minGames = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    paths.add(Paths.get(args[i]));
+            }
+        }
+        if (paths.size() < 2) {
+            System.err.println("usage: BookBuilder [-plies n] [-threads n] [-run entries] [-merge runs] [-min games] book.bin games.pgn...");
+            System.exit(1);
+        }
+        final BookBuilder builder = new BookBuilder(plyLimit, threadCount, runEntries, mergeFanIn, minGames);
+        final long startTime = System.currentTimeMillis();
+        final long entries = builder.build(paths.subList(1, paths.size()), paths.get(0));
+        System.out.printf("%d games replayed, %d skipped, %d book entries in %d ms%n", builder.getReplayedGames(),
+                builder.getSkippedGames(), entries, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Writes the book of the given PGN files and returns how many entries it
+     * has. Run files go to a temporary directory next to the book.
+     */
+    public long build(final List<Path> pgnFiles, final Path output) throws IOException, InterruptedException {
+        final Path runDirectory = Files.createTempDirectory(output.toAbsolutePath().getParent(), "book");
+        final List<Path> runs = Collections.synchronizedList(new ArrayList<>());
+        try {
+            replayGames(pgnFiles, runDirectory, runs);
+            return writeBook(reduceRuns(new ArrayList<>(runs), runDirectory, runs), output);
+        } finally {
+            for (final Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            Files.deleteIfExists(runDirectory);
+        }
+    }
+
+    public long getReplayedGames() {
+        return this.replayedGames.get();
+    }
+
+    public long getSkippedGames() {
+        return this.skippedGames.get();
+    }
+
+    private void replayGames(final List<Path> pgnFiles,
+                             final Path runDirectory,
+                             final List<Path> runs) throws IOException, InterruptedException {
+        final BlockingQueue<List<PgnGame>> batches = new ArrayBlockingQueue<>(2 * this.threadCount);
+        final Replayer[] replayers = new Replayer[this.threadCount];
+        final Thread[] threads = new Thread[this.threadCount];
+        for (int i = 0; i < this.threadCount; i++) {
+            replayers[i] = new Replayer(batches, runDirectory, runs);
+            threads[i] = new Thread(replayers[i], "BookBuilder-" + i);
+            threads[i].start();
+        }
+        try {
+            List<PgnGame> batch = new ArrayList<>(BATCH_SIZE);
+            for (final Path pgnFile : pgnFiles) {
+                // the PGN standard is Latin-1, which also reads any other byte without complaint
+                try (PgnReader reader = new PgnReader(Files.newBufferedReader(pgnFile, StandardCharsets.ISO_8859_1))) {
+                    PgnGame game;
+                    while ((game = reader.next()) != null) {
+                        batch.add(game);
+                        if (batch.size() == BATCH_SIZE) {
+                            batches.put(batch);
+                            batch = new ArrayList<>(BATCH_SIZE);
+                        }
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                batches.put(batch);
+            }
+        } finally {
+            for (int i = 0; i < this.threadCount; i++) {
+                batches.put(END_OF_GAMES);
+            }
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+        }
+        for (final Replayer replayer : replayers) {
+            if (replayer.failure instanceof IOException) {
+                throw (IOException) replayer.failure;
+            }
+            if (replayer.failure != null) {
+                throw (RuntimeException) replayer.failure;
+            }
+        }
+    }
+
+    // merges groups of runs into longer ones until they can all be opened at once
+    private List<Path> reduceRuns(final List<Path> runs,
+                                  final Path runDirectory,
+                                  final List<Path> allRuns) throws IOException {
+        List<Path> remaining = runs;
+        while (remaining.size() > this.mergeFanIn) {
+            final List<Path> merged = new ArrayList<>();
+            for (int i = 0; i < remaining.size(); i += this.mergeFanIn) {
+                final List<Path> group = remaining.subList(i, Math.min(i + this.mergeFanIn, remaining.size()));
+                final Path run = Files.createTempFile(runDirectory, "run", ".bin");
+                allRuns.add(run);
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+                    merge(group, (key, move, counts) -> writeRecord(out, key, move, counts));
+                }
+                for (final Path done : group) {
+                    Files.delete(done);
+                }
+                merged.add(run);
+            }
+            remaining = merged;
+        }
+        return remaining;
+    }
+
+    private long writeBook(final List<Path> runs, final Path output) throws IOException {
+        final List<int[]> moves = new ArrayList<>();
+        final long[] position = new long[1];
+        final long[] entries = new long[1];
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            merge(runs, (key, move, counts) -> {
+                if (!moves.isEmpty() && key != position[0]) {
+                    entries[0] += writePosition(out, position[0], moves);
+                    moves.clear();
+                }
+                position[0] = key;
+                moves.add(new int[] {move, counts[0], counts[1], counts[2]});
+            });
+            if (!moves.isEmpty()) {
+                entries[0] += writePosition(out, position[0], moves);
+            }
+        }
+        return entries[0];
+    }
+
+    // merges the sorted runs, adding up the counts of the same position and
+    // move, and hands each pair to the sink once, in book order
+    private static void merge(final List<Path> runs, final RecordSink sink) throws IOException {
+        final PriorityQueue<RunReader> queue = new PriorityQueue<>();
+        try {
+            for (final Path run : runs) {
+                final RunReader reader = new RunReader(run);
+                if (reader.advance()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            final int[] counts = new int[3];
+            long key = 0;
+            int move = -1;
+            while (!queue.isEmpty()) {
+                final RunReader reader = queue.poll();
+                if (move != -1 && (reader.key != key || reader.move != move)) {
+                    sink.accept(key, move, counts);
+                    Arrays.fill(counts, 0);
+                }
+                key = reader.key;
+                move = reader.move;
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += reader.counts[i];
+                }
+                if (reader.advance()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            if (move != -1) {
+                sink.accept(key, move, counts);
+            }
+        } finally {
+            for (final RunReader reader : queue) {
+                reader.close();
+            }
+        }
+    }
+
+    private static void writeRecord(final DataOutputStream out,
+                                    final long key,
+                                    final int move,
+                                    final int[] counts) throws IOException {
+        out.writeLong(key);
+        out.writeShort(move);
+        for (final int count : counts) {
+            out.writeInt(count);
+        }
+    }
+
+    // each move is {move, losses, draws, wins}
+    private int writePosition(final DataOutputStream out, final long key, final List<int[]> moves) throws IOException {
+        final long[] weights = new long[moves.size()];
+        long maxWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            final int[] move = moves.get(i);
+            if ((long) move[1] + move[2] + move[3] >= this.minGames) {
+                weights[i] = 2L * move[3] + move[2];
+                maxWeight = Math.max(maxWeight, weights[i]);
+            }
+        }
+        int written = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] == 0) {
+                continue;
+            }
+            final long weight = maxWeight > MAX_WEIGHT ? Math.max(weights[i] * MAX_WEIGHT / maxWeight, 1) : weights[i];
+            out.writeLong(key);
+            out.writeShort(moves.get(i)[0]);
+            out.writeShort((int) weight);
+            out.writeInt(0);
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * A worker: replays the games of each batch it takes and counts the moves
+     * played, spilling its counts to a run file whenever it has too many.
+     */
+    private final class Replayer implements Runnable {
+
+        private final BlockingQueue<List<PgnGame>> batches;
+        private final Path runDirectory;
+        private final List<Path> runs;
+        // losses, draws and wins of each move
+        private final Map<PositionMove, int[]> counts = new HashMap<>();
+        private Exception failure;
+
+        Replayer(final BlockingQueue<List<PgnGame>> batches, final Path runDirectory, final List<Path> runs) {
+            this.batches = batches;
+            this.runDirectory = runDirectory;
+            this.runs = runs;
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<PgnGame> batch;
+                // after a failure keep taking batches so the reader is never left waiting
+                while ((batch = this.batches.take()) != END_OF_GAMES) {
+                    if (this.failure == null) {
+                        replayBatch(batch);
+                    }
+                }
+                if (this.failure == null) {
+                    spill();
+                }
+            } catch (final IOException | RuntimeException e) {
+                this.failure = e;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void replayBatch(final List<PgnGame> batch) {
+            try {
+                for (final PgnGame game : batch) {
+                    replay(game);
+                }
+            } catch (final IOException | RuntimeException e) {
+                this.failure = e;
+            }
+        }
+
+        private void replay(final PgnGame game) throws IOException {
+            if (game.getResult() == PgnGame.UNKNOWN) {
+                skippedGames.incrementAndGet();
+                return;
+            }
+            replayedGames.incrementAndGet();
+            Board board = Board.createStandardBoard();
+            final int plies = Math.min(plyLimit, game.getMoves().size());
+            for (int ply = 0; ply < plies; ply++) {
+                final Move move = PgnUtils.parseMove(board, game.getMoves().get(ply));
+                if (move == null) {
+                    return;
+                }
+                final int outcome = board.currentPlayer().getAlliance().isWhite() ? game.getResult() : -game.getResult();
+                final PositionMove positionMove = new PositionMove(board.getZobristKey(), OpeningBook.encodeMove(move));
+                this.counts.computeIfAbsent(positionMove, k -> new int[3])[outcome + 1]++;
+                if (this.counts.size() >= runEntries) {
+                    spill();
+                }
+                board = board.currentPlayer().makeMove(move).getTransitionBoard();
+            }
+        }
+
+        private void spill() throws IOException {
+            if (this.counts.isEmpty()) {
+                return;
+            }
+            final List<Map.Entry<PositionMove, int[]>> entries = new ArrayList<>(this.counts.entrySet());
+            entries.sort(Map.Entry.comparingByKey());
+            final Path run = Files.createTempFile(this.runDirectory, "run", ".bin");
+            this.runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+                for (final Map.Entry<PositionMove, int[]> entry : entries) {
+                    writeRecord(out, entry.getKey().key, entry.getKey().move, entry.getValue());
+                }
+            }
+            this.counts.clear();
+        }
+    }
+
+    /**
+     * Takes the merged records of a position and move, in book order.
+     */
+    private interface RecordSink {
+
+        void accept(long key, int move, int[] counts) throws IOException;
+    }
+
+    /**
+     * A move played from a position, in book order: by key as an unsigned
+     * number, then by move.
+     */
+    private static final class PositionMove implements Comparable<PositionMove> {
+
+        private final long key;
+        private final int move;
+
+        PositionMove(final long key, final int move) {
+            this.key = key;
+            this.move = move;
+        }
+
+        @Override
+        public int compareTo(final PositionMove other) {
+            final int byKey = Long.compareUnsigned(this.key, other.key);
+            return byKey != 0 ? byKey : Integer.compare(this.move, other.move);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof PositionMove)) {
+                return false;
+            }
+            final PositionMove positionMove = (PositionMove) other;
+            return this.key == positionMove.key && this.move == positionMove.move;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(this.key) * 31 + this.move;
+        }
+    }
+
+    /**
+     * Reads a run file back one record at a time.
+     */
+    private static final class RunReader implements Comparable<RunReader>, Closeable {
+
+        private final DataInputStream in;
+        private long remaining;
+        private long key;
+        private int move;
+        private final int[] counts = new int[3];
+
+        RunReader(final Path run) throws IOException {
+            this.remaining = Files.size(run) / RUN_RECORD_SIZE;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+        }
+
+        boolean advance() throws IOException {
+            if (this.remaining == 0) {
+                return false;
+            }
+            this.remaining--;
+            this.key = this.in.readLong();
+            this.move = this.in.readUnsignedShort();
+            for (int i = 0; i < this.counts.length; i++) {
+                this.counts[i] = this.in.readInt();
+            }
+            return true;
+        }
+
+        @Override
+        public int compareTo(final RunReader other) {
+            final int byKey = Long.compareUnsigned(this.key, other.key);
+            return byKey != 0 ? byKey : Integer.compare(this.move, other.move);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+}
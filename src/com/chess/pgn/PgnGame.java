@@ -0,0 +1,48 @@
+package com.chess.pgn;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The moves of one game from a PGN file, in SAN, and how it ended.
+ */
+public final class PgnGame {
+
+    public static final int WHITE_WINS = 1;
+    public static final int DRAW = 0;
+    public static final int BLACK_WINS = -1;
+    public static final int UNKNOWN = 2;
+
+    private final List<String> moves;
+    private final int result;
+
+    public PgnGame(final List<String> moves, final int result) {
+        this.moves = Collections.unmodifiableList(moves);
+        this.result = result;
+    }
+
+    public List<String> getMoves() {
+        return this.moves;
+    }
+
+    /**
+     * One of {@link #WHITE_WINS}, {@link #DRAW}, {@link #BLACK_WINS} or
+     * {@link #UNKNOWN} for a game that is unfinished or has no result.
+     */
+    public int getResult() {
+        return this.result;
+    }
+
+    static int parseResult(final String result) {
+        switch (result) {
+            case "1-0":
+                return WHITE_WINS;
+            case "0-1":
+                return BLACK_WINS;
+            case "1/2-1/2":
+                return DRAW;
+            default:
+                return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.chess.pgn;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the games of a PGN file one at a time, so a corpus of any size can be
+ * streamed. Only the main line and the result are kept: tags other than
+ * {@code Result}, comments, variations, move numbers and annotation glyphs
+ * are skipped.
+ */
+public final class PgnReader implements Closeable {
+
+    private final BufferedReader reader;
+    private String pendingLine;
+    private boolean inComment;
+    private int variationDepth;
+    private String resultToken;
+
+    public PgnReader(final BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * The next game in the file, or null when there are no more.
+     */
+    public PgnGame next() throws IOException {
+        final List<String> moves = new ArrayList<>();
+        String tagResult = "*";
+        String line;
+        while ((line = readLine()) != null) {
+            final String trimmed = line.trim();
+            if (!this.inComment && this.variationDepth == 0) {
+                if (trimmed.startsWith("[")) {
+                    if (!moves.isEmpty()) {
+                        // the game before ended without a result
+                        this.pendingLine = line;
+                        return new PgnGame(moves, PgnGame.parseResult(tagResult));
+                    }
+                    if (trimmed.startsWith("[Result ")) {
+                        tagResult = trimmed.substring(trimmed.indexOf('"') + 1, trimmed.lastIndexOf('"'));
+                    }
+                    continue;
+                }
+                if (trimmed.startsWith("%")) {
+                    continue;
+                }
+            }
+            this.resultToken = null;
+            readMoves(line, moves);
+            if (this.resultToken != null) {
+                return new PgnGame(moves, PgnGame.parseResult(this.resultToken));
+            }
+        }
+        return moves.isEmpty() ? null : new PgnGame(moves, PgnGame.parseResult(tagResult));
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private String readLine() throws IOException {
+        if (this.pendingLine != null) {
+            final String line = this.pendingLine;
+            this.pendingLine = null;
+            return line;
+        }
+        return this.reader.readLine();
+    }
+
+    // adds the moves of a line of movetext, stopping at a result
+    private void readMoves(final String line, final List<String> moves) {
+        int i = 0;
+        while (i < line.length()) {
+            final char c = line.charAt(i);
+            if (this.inComment) {
+                this.inComment = c != '}';
+                i++;
+            } else if (c == '{') {
+                this.inComment = true;
+                i++;
+            } else if (c == ';') {
+                return;
+            } else if (c == '(') {
+                this.variationDepth++;
+                i++;
+            } else if (c == ')') {
+                this.variationDepth = Math.max(this.variationDepth - 1, 0);
+                i++;
+            } else if (this.variationDepth > 0 || Character.isWhitespace(c)) {
+                i++;
+            } else {
+                final int start = i;
+                while (i < line.length() && !Character.isWhitespace(line.charAt(i)) && "{};()".indexOf(line.charAt(i)) < 0) {
+                    i++;
+                }
+                final String token = line.substring(start, i);
+                if (PgnGame.parseResult(token) != PgnGame.UNKNOWN || token.equals("*")) {
+                    this.resultToken = token;
+                    return;
+                }
+                final String move = stripMoveNumber(token);
+                if (!move.isEmpty() && move.charAt(0) != '$') {
+                    moves.add(move);
+                }
+            }
+        }
+    }
+
+    // "12.", "12..." and "12.e4" all carry a move number in front
+    private static String stripMoveNumber(final String token) {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || i == token.length() || token.charAt(i) != '.') {
+            return i == token.length() ? "" : token;
+        }
+        while (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        return token.substring(i);
+    }
+}
@@ -0,0 +1,106 @@
+package com.chess.pgn;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.MoveFactory;
+import com.chess.engine.board.Move.PawnPromotion;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Reading moves written in standard algebraic notation, as PGN files do.
+ */
+public final class PgnUtils {
+
+    private PgnUtils() {
+        throw new RuntimeException("You cannot instanciate me!");
+    }
+
+    /**
+     * The legal move of the board's current player written in standard
+     * algebraic notation, such as {@code e4}, {@code Nbxd7+}, {@code exd8=Q}
+     * or {@code O-O}. Returns null when no legal move or more than one fits.
+     */
+    public static Move parseMove(final Board board, final String san) {
+        String text = san;
+        while (!text.isEmpty() && "+#!?".indexOf(text.charAt(text.length() - 1)) >= 0) {
+            text = text.substring(0, text.length() - 1);
+        }
+        if (text.equals("O-O") || text.equals("0-0")) {
+            return parseCastle(board, true);
+        }
+        if (text.equals("O-O-O") || text.equals("0-0-0")) {
+            return parseCastle(board, false);
+        }
+
+        PieceType promotionType = null;
+        final int promotionIndex = text.indexOf('=');
+        if (promotionIndex >= 0 || (text.length() > 2 && Character.isUpperCase(text.charAt(text.length() - 1)))) {
+            promotionType = pieceType(text.charAt(text.length() - 1));
+            text = text.substring(0, promotionIndex >= 0 ? promotionIndex : text.length() - 1);
+            if (promotionType == null) {
+                return null;
+            }
+        }
+        if (text.length() < 2) {
+            return null;
+        }
+        final PieceType movedType = Character.isUpperCase(text.charAt(0)) ? pieceType(text.charAt(0)) : PieceType.PAWN;
+        final String destination = text.substring(text.length() - 2);
+        if (movedType == null || !BoardUtils.POSITION_TO_COORDINATE.containsKey(destination)) {
+            return null;
+        }
+        final int destinationCoordinate = BoardUtils.getCoordinateAtPosition(destination);
+        // whatever is left between the piece and the destination narrows down where it came from
+        final String from = text.substring(movedType == PieceType.PAWN ? 0 : 1, text.length() - 2).replace("x", "");
+
+        Move found = null;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (move.getDestinationCoordinate() != destinationCoordinate
+                    || move.getMovedPiece().getPieceType() != movedType
+                    || move.isCastlingMove()
+                    || !isFrom(move.getCurrentCoordinate(), from)
+                    || !isPromotion(move, promotionType)
+                    || !board.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                continue;
+            }
+            if (found != null) {
+                return null;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    private static Move parseCastle(final Board board, final boolean kingSide) {
+        final int kingCoordinate = board.currentPlayer().getPLayerKing().getPiecePosition();
+        final Move move = MoveFactory.createMove(board, kingCoordinate, kingCoordinate + (kingSide ? 2 : -2));
+        return move.isCastlingMove() && board.currentPlayer().makeMove(move).getMoveStatus().isDone() ? move : null;
+    }
+
+    private static boolean isFrom(final int coordinate, final String from) {
+        final String position = BoardUtils.getPositionAtCoordinate(coordinate);
+        for (int i = 0; i < from.length(); i++) {
+            if (position.indexOf(from.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPromotion(final Move move, final PieceType promotionType) {
+        if (!(move instanceof PawnPromotion)) {
+            return promotionType == null;
+        }
+        return ((PawnPromotion) move).getPromotionPiece().getPieceType() == promotionType;
+    }
+
+    private static PieceType pieceType(final char letter) {
+        for (final PieceType pieceType : PieceType.values()) {
+            if (pieceType != PieceType.PAWN && pieceType.toString().charAt(0) == letter) {
+                return pieceType;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,77 @@
+package com.chess.bench;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move.MoveFactory;
+import com.chess.engine.player.AI.LazySmp;
+import com.chess.engine.player.AI.SearchLimits;
+import com.chess.engine.player.MoveTransition;
+
+/**
+ * Measures how much sooner {@link LazySmp} reaches a fixed depth as threads
+ * are added. Each thread count searches the same positions from an empty
+ * table, and the total time is compared with the single-threaded run.
+ *
+ * Usage: {@code LazySmpBenchmark [depth] [thread counts...]}, by default
+ * depth 8 with 1, 2, 4, 8 and 16 threads.
+ */
+public final class LazySmpBenchmark {
+
+        private static final String[][] OPENINGS = {
+                        {},
+                        {"e2", "e4", "e7", "e5", "g1", "f3", "b8", "c6", "f1", "b5"},
+                        {"d2", "d4", "g8", "f6", "c2", "c4", "e7", "e6", "b1", "c3", "f8", "b4"},
+                        {"e2", "e4", "c7", "c5", "g1", "f3", "d7", "d6", "d2", "d4", "c5", "d4", "f3", "d4"}
+        };
+
+        private LazySmpBenchmark() {
+                throw new RuntimeException("You cannot instanciate me!");
+        }
+
+        public static void main(final String[] args) {
+                final int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+                final int[] threadCounts = {1, 2, 4, 8, 16};
+                final int[] counts = args.length > 1 ? new int[args.length - 1] : threadCounts;
+                for (int i = 1; i < args.length; i++) {
+                        counts[i - 1] = Integer.parseInt(args[i]);
+                }
+                final Board[] positions = new Board[OPENINGS.length];
+                for (int i = 0; i < OPENINGS.length; i++) {
+                        positions[i] = play(Board.createStandardBoard(), OPENINGS[i]);
+                }
+
+                // one untimed pass so the first measurement is not paying for the JIT
+                new LazySmp(SearchLimits.depth(Math.min(depth, 5)), 1).execute(positions[0]);
+
+                long baseline = 0;
+                System.out.println("threads  time(ms)  speedup  nodes");
+                for (final int threadCount : counts) {
+                        long millis = 0;
+                        long nodes = 0;
+                        for (final Board position : positions) {
+                                final LazySmp search = new LazySmp(SearchLimits.depth(depth), threadCount);
+                                final long start = System.nanoTime();
+                                search.execute(position);
+                                millis += (System.nanoTime() - start) / 1000000;
+                                nodes += search.getNodes();
+                        }
+                        if (baseline == 0) {
+                                baseline = Math.max(millis, 1);
+                        }
+                        System.out.printf("%7d  %8d  %7.2f  %d%n", threadCount, millis, (double) baseline / Math.max(millis, 1), nodes);
+                }
+        }
+
+        private static Board play(final Board board, final String... squares) {
+                Board position = board;
+                for (int i = 0; i < squares.length; i += 2) {
+                        final MoveTransition transition = position.currentPlayer().makeMove(MoveFactory.createMove(position,
+                                        BoardUtils.getCoordinateAtPosition(squares[i]), BoardUtils.getCoordinateAtPosition(squares[i + 1])));
+                        if (!transition.getMoveStatus().isDone()) {
+                                throw new IllegalStateException("illegal opening move " + squares[i] + squares[i + 1]);
+                        }
+                        position = transition.getTransitionBoard();
+                }
+                return position;
+        }
+}
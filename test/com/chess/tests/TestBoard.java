@@ -5,19 +5,37 @@ import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Move.MoveFactory;
+import com.chess.engine.board.SearchBoard;
 // import com.chess.engine.board.MoveTransition;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.player.MoveTransition;
+import com.chess.engine.player.AI.AlphaBeta;
+import com.chess.engine.player.AI.IterativeDeepening;
+import com.chess.engine.player.AI.LazySmp;
 import com.chess.engine.player.AI.MinMax;
 import com.chess.engine.player.AI.MoveStrategy;
+import com.chess.engine.player.AI.OpeningBook;
+import com.chess.engine.player.AI.OpeningBookStrategy;
+import com.chess.engine.player.AI.PonderingSearch;
+import com.chess.engine.player.AI.PrincipalVariationSearch;
+import com.chess.engine.player.AI.SearchLimits;
+import com.chess.engine.player.AI.SearchListener;
+import com.chess.engine.player.AI.SearchStats;
+import com.chess.engine.player.AI.TranspositionTable;
 
 // import com.chess.engine.player.ai.StandardBoardEvaluator;
 // import com.chess.pgn.FenUtilities;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -54,4 +72,272 @@ public class TestBoard {
                 assertEquals(bestMove, aiMove);
         }
 
-}
\ No newline at end of file
+        @Test
+        public void testSquareAttacks() {
+                final Board board = Board.createStandardBoard();
+                final int f3 = BoardUtils.getCoordinateAtPosition("f3");
+                assertTrue(board.isSquareAttacked(f3, Alliance.WHITE));
+                assertFalse(board.isSquareAttacked(f3, Alliance.BLACK));
+                assertFalse(board.isSquareAttacked(BoardUtils.getCoordinateAtPosition("e4"), Alliance.WHITE));
+                final long attackers = (1L << BoardUtils.getCoordinateAtPosition("e2"))
+                                | (1L << BoardUtils.getCoordinateAtPosition("g2"))
+                                | (1L << BoardUtils.getCoordinateAtPosition("g1"));
+                assertEquals(attackers, board.getAttackers(f3, Alliance.WHITE));
+        }
+
+        @Test
+        public void testZobristKeyOfTransposition() {
+                final Board start = Board.createStandardBoard();
+                final Board knightsFirst = play(start, "g1", "f3", "b8", "c6", "b1", "c3");
+                final Board otherOrder = play(start, "b1", "c3", "b8", "c6", "g1", "f3");
+                assertEquals(knightsFirst.getZobristKey(), otherOrder.getZobristKey());
+                assertNotEquals(start.getZobristKey(), knightsFirst.getZobristKey());
+                assertEquals(start.getZobristKey(), play(start, "g1", "f3", "g8", "f6", "f3", "g1", "f6", "g8").getZobristKey());
+        }
+
+        @Test
+        public void testAlphaBetaMatchesMinMax() {
+                final Board start = Board.createStandardBoard();
+                final Board[] boards = {
+                        start,
+                        play(start, "e2", "e4", "e7", "e5", "g1", "f3"),
+                        play(start, "d2", "d4", "d7", "d5", "c2", "c4", "d5", "c4"),
+                        play(start, "f2", "f3", "e7", "e5", "g2", "g4")
+                };
+                for (final Board board : boards) {
+                        assertEquals(new MinMax(3).execute(board), new AlphaBeta(3).execute(board));
+                }
+        }
+
+        @Test
+        public void testParallelMinMaxMatchesSequential() {
+                final Board start = Board.createStandardBoard();
+                final Board[] boards = {
+                        start,
+                        play(start, "e2", "e4", "d7", "d5"),
+                        play(start, "d2", "d4", "d7", "d5", "c2", "c4", "d5", "c4")
+                };
+                for (final Board board : boards) {
+                        assertEquals(new MinMax(3).execute(board), new MinMax(3, 4).execute(board));
+                }
+        }
+
+        @Test
+        public void testIterativeDeepeningLimits() {
+                final Board foolsMate = play(Board.createStandardBoard(), "f2", "f3", "e7", "e5", "g2", "g4");
+                final Move mate = MoveFactory.createMove(foolsMate, BoardUtils.getCoordinateAtPosition("d8"),
+                                BoardUtils.getCoordinateAtPosition("h4"));
+                assertEquals(mate, new IterativeDeepening(SearchLimits.depth(4)).execute(foolsMate));
+
+                final IterativeDeepening strategy = new IterativeDeepening(
+                                new SearchLimits.Builder().setMaxNodes(2000).build());
+                final Move move = strategy.execute(Board.createStandardBoard());
+                assertNotNull(move);
+                assertTrue(strategy.getCompletedDepth() >= 1);
+                assertTrue(strategy.getCompletedDepth() < SearchLimits.MAX_DEPTH);
+        }
+
+        @Test
+        public void testPrincipalVariationSearch() {
+                final Board foolsMate = play(Board.createStandardBoard(), "f2", "f3", "e7", "e5", "g2", "g4");
+                final Move mate = MoveFactory.createMove(foolsMate, BoardUtils.getCoordinateAtPosition("d8"),
+                                BoardUtils.getCoordinateAtPosition("h4"));
+                final PrincipalVariationSearch strategy = new PrincipalVariationSearch(SearchLimits.depth(4));
+                assertEquals(mate, strategy.execute(foolsMate));
+                assertEquals(mate, strategy.getPrincipalVariation().get(0));
+
+                final Board start = Board.createStandardBoard();
+                final Move move = strategy.execute(start, SearchLimits.depth(5));
+                final List<Move> line = strategy.getPrincipalVariation();
+                assertEquals(move, line.get(0));
+                assertTrue(line.size() <= 5);
+        }
+
+        @Test
+        public void testLazySmp() {
+                final Board foolsMate = play(Board.createStandardBoard(), "f2", "f3", "e7", "e5", "g2", "g4");
+                final Move mate = MoveFactory.createMove(foolsMate, BoardUtils.getCoordinateAtPosition("d8"),
+                                BoardUtils.getCoordinateAtPosition("h4"));
+                final LazySmp strategy = new LazySmp(SearchLimits.depth(4), 3);
+                assertEquals(mate, strategy.execute(foolsMate));
+                assertNotNull(strategy.execute(Board.createStandardBoard(), SearchLimits.moveTime(200)));
+                assertTrue(strategy.getCompletedDepth() >= 1);
+        }
+
+        @Test
+        public void testPonderHit() {
+                final PonderingSearch strategy = new PonderingSearch(SearchLimits.depth(4));
+                final Board start = Board.createStandardBoard();
+                final Move move = strategy.execute(start);
+                assertTrue(strategy.isPondering());
+                final Move expectedReply = strategy.getPonderMove();
+                final Board afterMove = start.currentPlayer().makeMove(move).getTransitionBoard();
+                final Board afterReply = afterMove.currentPlayer().makeMove(expectedReply).getTransitionBoard();
+
+                final Move answer = strategy.execute(afterReply, SearchLimits.moveTime(100));
+                assertNotNull(answer);
+                assertTrue(afterReply.currentPlayer().makeMove(answer).getMoveStatus().isDone());
+                strategy.stopPondering();
+                assertFalse(strategy.isPondering());
+        }
+
+        @Test(timeout = 60000)
+        public void testPonderHitWithNodeLimit() {
+                final SearchLimits limits = new SearchLimits.Builder().setMaxNodes(20000).build();
+                final PonderingSearch strategy = new PonderingSearch(limits);
+                final Board start = Board.createStandardBoard();
+                final Move move = strategy.execute(start);
+                assertTrue(strategy.isPondering());
+                final Board afterMove = start.currentPlayer().makeMove(move).getTransitionBoard();
+                final Board afterReply = afterMove.currentPlayer().makeMove(strategy.getPonderMove()).getTransitionBoard();
+
+                // pondering has no clock of its own; the hit must still end on the node budget
+                final Move answer = strategy.execute(afterReply, limits);
+                assertNotNull(answer);
+                assertTrue(afterReply.currentPlayer().makeMove(answer).getMoveStatus().isDone());
+                strategy.stopPondering();
+                assertFalse(strategy.isPondering());
+        }
+
+        @Test
+        public void testSearchStats() {
+                final PrincipalVariationSearch strategy = new PrincipalVariationSearch(SearchLimits.depth(5));
+                final List<SearchStats> iterations = new ArrayList<>();
+                final List<SearchStats> totals = new ArrayList<>();
+                strategy.setSearchListener(new SearchListener() {
+                        @Override
+                        public void onIteration(final SearchStats stats) {
+                                iterations.add(stats);
+                        }
+
+                        @Override
+                        public void onSearchFinished(final SearchStats stats) {
+                                totals.add(stats);
+                        }
+                });
+                final Move move = strategy.execute(Board.createStandardBoard());
+
+                assertEquals(5, iterations.size());
+                for (int i = 0; i < iterations.size(); i++) {
+                        assertEquals(i + 1, iterations.get(i).getDepth());
+                        final int length = iterations.get(i).getPrincipalVariation().size();
+                        assertTrue(length >= 1 && length <= i + 1);
+                }
+                assertEquals(1, totals.size());
+                final SearchStats stats = strategy.getSearchStats();
+                assertEquals(strategy.getNodes(), stats.getNodes());
+                assertEquals(totals.get(0).getNodes(), stats.getNodes());
+                assertTrue(stats.getQuiescenceNodes() > 0 && stats.getQuiescenceNodes() < stats.getNodes());
+                assertTrue(stats.getTableHitRate() > 0 && stats.getTableHitRate() <= 1);
+                assertTrue(stats.getFirstMoveCutoffRate() > 0.5 && stats.getFirstMoveCutoffRate() <= 1);
+                assertTrue(stats.getEffectiveBranchingFactor() > 1);
+                assertEquals(move, stats.getPrincipalVariation().get(0));
+
+                // with counting off only the nodes are kept, and the move does not change
+                strategy.setStatsEnabled(false);
+                assertEquals(move, strategy.execute(Board.createStandardBoard()));
+                final SearchStats nodesOnly = strategy.getSearchStats();
+                assertTrue(nodesOnly.getNodes() > 0);
+                assertEquals(0, nodesOnly.getTableProbes());
+                assertEquals(0, nodesOnly.getBetaCutoffs());
+                assertEquals(0, nodesOnly.getQuiescenceNodes());
+
+                final MinMax minMax = new MinMax(2);
+                minMax.execute(Board.createStandardBoard());
+                // the positions after the 20 first moves and their 400 replies
+                assertEquals(20 + 400, minMax.getSearchStats().getNodes());
+        }
+
+        @Test
+        public void testOpeningBook() throws IOException {
+                final Board start = Board.createStandardBoard();
+                final Move e4 = MoveFactory.createMove(start, BoardUtils.getCoordinateAtPosition("e2"),
+                                BoardUtils.getCoordinateAtPosition("e4"));
+                final Move d4 = MoveFactory.createMove(start, BoardUtils.getCoordinateAtPosition("d2"),
+                                BoardUtils.getCoordinateAtPosition("d4"));
+                final Move a3 = MoveFactory.createMove(start, BoardUtils.getCoordinateAtPosition("a2"),
+                                BoardUtils.getCoordinateAtPosition("a3"));
+                assertEquals(796, OpeningBook.encodeMove(e4));
+
+                final Path file = Files.createTempFile("book", ".bin");
+                try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+                        for (final Move move : new Move[] {e4, d4, a3}) {
+                                out.writeLong(start.getZobristKey());
+                                out.writeShort(OpeningBook.encodeMove(move));
+                                out.writeShort(move == e4 ? 3 : move == d4 ? 1 : 0);
+                                out.writeInt(0);
+                        }
+                }
+                try (OpeningBook book = new OpeningBook(file)) {
+                        assertEquals(3, book.getEntryCount());
+                        final Map<Move, Integer> moves = book.getMoves(start);
+                        assertEquals(2, moves.size());
+                        assertEquals(Integer.valueOf(3), moves.get(e4));
+                        assertEquals(Integer.valueOf(1), moves.get(d4));
+
+                        final Board afterE4 = play(start, "e2", "e4");
+                        assertTrue(book.getMoves(afterE4).isEmpty());
+                        final MoveStrategy strategy = new OpeningBookStrategy(book, board -> Move.NULL_MOVE, new Random(1));
+                        assertTrue(moves.containsKey(strategy.execute(start)));
+                        assertEquals(Move.NULL_MOVE, strategy.execute(afterE4));
+                } finally {
+                        Files.delete(file);
+                }
+        }
+
+        @Test
+        public void testPolyglotKeys() {
+                // the reference keys from the Polyglot book format
+                final Board start = Board.createStandardBoard();
+                assertEquals(0x463b96181691fc9cL, start.getZobristKey());
+                final Board e4 = play(start, "e2", "e4");
+                assertEquals(0x823c9b50fd114196L, e4.getZobristKey());
+                final Board d5 = play(e4, "d7", "d5");
+                assertEquals(0x0756b94461c50fb0L, d5.getZobristKey());
+                final Board e5 = play(d5, "e4", "e5");
+                assertEquals(0x662fafb965db29d4L, e5.getZobristKey());
+                // the e5 pawn can take en passant on f6
+                final Board f5 = play(e5, "f7", "f5");
+                assertEquals(0x22a48b5a8e47ff78L, f5.getZobristKey());
+                final Board ke2 = play(f5, "e1", "e2");
+                assertEquals(0x652a607ca3f242c1L, ke2.getZobristKey());
+                assertEquals(0x00fdd303c946bdd9L, play(ke2, "e8", "f7").getZobristKey());
+
+                final Board c4 = play(start, "a2", "a4", "b7", "b5", "h2", "h4", "b5", "b4", "c2", "c4");
+                assertEquals(0x3c8123ea7b067637L, c4.getZobristKey());
+                final Board ra3 = play(c4, "b4", "c3", "a1", "a3");
+                assertEquals(0x5c3f9b829b279560L, ra3.getZobristKey());
+                assertEquals(ra3.getZobristKey(), new SearchBoard(ra3).getZobristKey());
+        }
+
+        @Test
+        public void testTranspositionTable() {
+                final TranspositionTable table = new TranspositionTable(1);
+                final long key = Board.createStandardBoard().getZobristKey();
+                assertEquals(TranspositionTable.NO_ENTRY, table.probe(key));
+
+                table.store(key, 1234, -567, 5, TranspositionTable.LOWER_BOUND);
+                final long entry = table.probe(key);
+                assertEquals(1234, TranspositionTable.getMove(entry));
+                assertEquals(-567, TranspositionTable.getScore(entry));
+                assertEquals(5, TranspositionTable.getDepth(entry));
+                assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.getBound(entry));
+                assertEquals(TranspositionTable.NO_ENTRY, table.probe(key ^ 1L));
+
+                table.clear();
+                assertEquals(TranspositionTable.NO_ENTRY, table.probe(key));
+        }
+
+        private static Board play(final Board board, final String... squares) {
+                Board current = board;
+                for (int i = 0; i < squares.length; i += 2) {
+                        final MoveTransition transition = current.currentPlayer().makeMove(MoveFactory.createMove(current,
+                                        BoardUtils.getCoordinateAtPosition(squares[i]),
+                                        BoardUtils.getCoordinateAtPosition(squares[i + 1])));
+                        assertTrue(transition.getMoveStatus().isDone());
+                        current = transition.getTransitionBoard();
+                }
+                return current;
+        }
+
+}
@@ -0,0 +1,102 @@
+package com.chess.tests;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.AI.OpeningBook;
+import com.chess.pgn.BookBuilder;
+import com.chess.pgn.PgnUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TestPgn {
+
+        private static final String GAMES = "[Event \"One\"]\n"
+                        + "[Result \"1-0\"]\n"
+                        + "\n"
+                        + "1. e4 e5 2. Nf3 {a comment} Nc6 (2... d6 3. d4) 3. Bb5 a6\n"
+                        + "4. Ba4 Nf6 5. O-O Be7 1-0\n"
+                        + "\n"
+                        + "[Result \"1/2-1/2\"]\n"
+                        + "1.e4 e5 2.Nf3 Nf6 $1 ; drawish\n"
+                        + "1/2-1/2\n"
+                        + "\n"
+                        + "[Result \"0-1\"]\n"
+                        + "1. d4 d5 0-1\n"
+                        + "\n"
+                        + "[Result \"*\"]\n"
+                        + "1. c4 *\n";
+
+        @Test
+        public void testParseSan() {
+                Board board = Board.createStandardBoard();
+                assertNull(PgnUtils.parseMove(board, "Qh5"));
+                assertNull(PgnUtils.parseMove(board, "O-O"));
+                for (final String san : new String[] {"d3", "e5", "Nf3", "e4"}) {
+                        board = play(board, san);
+                }
+                // both knights reach d2
+                assertNull(PgnUtils.parseMove(board, "Nd2"));
+                final Move move = PgnUtils.parseMove(board, "Nbd2");
+                assertEquals(BoardUtils.getCoordinateAtPosition("b1"), move.getCurrentCoordinate());
+                assertEquals(BoardUtils.getCoordinateAtPosition("f3"),
+                                PgnUtils.parseMove(board, "Nfd2").getCurrentCoordinate());
+                final Move capture = PgnUtils.parseMove(board, "dxe4!");
+                assertTrue(capture.isAttack());
+        }
+
+        @Test
+        public void testBookBuilder() throws IOException, InterruptedException {
+                final Path directory = Files.createTempDirectory("pgn");
+                final Path pgn = directory.resolve("games.pgn");
+                final Path bookFile = directory.resolve("book.bin");
+                Files.write(pgn, GAMES.getBytes(StandardCharsets.ISO_8859_1));
+                // a run of two entries makes the workers spill all the time, and
+                // merging two runs at a time takes several passes
+                final BookBuilder builder = new BookBuilder(BookBuilder.DEFAULT_PLY_LIMIT, 2, 2, 2, 1);
+                try {
+                        final long entries = builder.build(Collections.singletonList(pgn), bookFile);
+                        assertEquals(3, builder.getReplayedGames());
+                        assertEquals(1, builder.getSkippedGames());
+                        try (Stream<Path> files = Files.list(directory)) {
+                                assertEquals(2, files.count());
+                        }
+
+                        try (OpeningBook book = new OpeningBook(bookFile)) {
+                                assertEquals(entries, book.getEntryCount());
+                                final Board start = Board.createStandardBoard();
+                                // e4 won once and drew once, d4 only lost
+                                assertEquals(Collections.singletonMap(PgnUtils.parseMove(start, "e4"), 3),
+                                                book.getMoves(start));
+                                final Board afterE4 = play(start, "e4");
+                                assertEquals(Integer.valueOf(1), book.getMoves(afterE4).get(PgnUtils.parseMove(afterE4, "e5")));
+
+                                Board beforeCastling = start;
+                                for (final String san : Arrays.asList("e4", "e5", "Nf3", "Nc6", "Bb5", "a6", "Ba4", "Nf6")) {
+                                        beforeCastling = play(beforeCastling, san);
+                                }
+                                final Map<Move, Integer> moves = book.getMoves(beforeCastling);
+                                assertEquals(1, moves.size());
+                                assertTrue(moves.keySet().iterator().next().isCastlingMove());
+                        }
+                } finally {
+                        Files.deleteIfExists(bookFile);
+                        Files.delete(pgn);
+                        Files.delete(directory);
+                }
+        }
+
+        private static Board play(final Board board, final String san) {
+                return board.currentPlayer().makeMove(PgnUtils.parseMove(board, san)).getTransitionBoard();
+        }
+}
@@ -0,0 +1,196 @@
+package com.chess.tests;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.EncodedMove;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.PieceUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestSearchBoard {
+
+        @Test
+        public void testPerftFromStandardBoard() {
+                final SearchBoard board = new SearchBoard(Board.createStandardBoard());
+                assertEquals(20, perft(board, 1));
+                assertEquals(400, perft(board, 2));
+                assertEquals(8902, perft(board, 3));
+                assertEquals(197281, perft(board, 4));
+        }
+
+        @Test
+        public void testLegalPerftFromStandardBoard() {
+                final SearchBoard board = new SearchBoard(Board.createStandardBoard());
+                assertEquals(20, legalPerft(board, 1));
+                assertEquals(400, legalPerft(board, 2));
+                assertEquals(8902, legalPerft(board, 3));
+                assertEquals(197281, legalPerft(board, 4));
+                assertEquals(4865609, legalPerft(board, 5));
+        }
+
+        @Test
+        public void testLegalPerftWithPinsAndCastling() {
+                // "Kiwipete": pins, castling through attacked squares, en passant
+                final SearchBoard board = new SearchBoard(
+                                fromPlacement("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R", Alliance.WHITE));
+                assertEquals(48, legalPerft(board, 1));
+                assertEquals(2039, legalPerft(board, 2));
+                assertEquals(97862, legalPerft(board, 3));
+        }
+
+        @Test
+        public void testLegalPerftWithDiscoveredChecks() {
+                // en passant captures that expose the king along the rank
+                final SearchBoard board = new SearchBoard(
+                                fromPlacement("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8", Alliance.WHITE));
+                assertEquals(14, legalPerft(board, 1));
+                assertEquals(191, legalPerft(board, 2));
+                assertEquals(2812, legalPerft(board, 3));
+                assertEquals(43238, legalPerft(board, 4));
+                assertEquals(674624, legalPerft(board, 5));
+        }
+
+        @Test
+        public void testUnmakeRestoresPosition() {
+                final Board standardBoard = Board.createStandardBoard();
+                final SearchBoard board = new SearchBoard(standardBoard);
+                perft(board, 3);
+                assertEquals(standardBoard.toString(), board.toBoard().toString());
+                assertEquals(20, board.toBoard().currentPlayer().getLegalMoves().size());
+        }
+
+        @Test
+        public void testEncodedMovesMatchBoardMoves() {
+                final Board standardBoard = Board.createStandardBoard();
+                final MoveList moves = new MoveList();
+                new SearchBoard(standardBoard).generateMoves(moves);
+                assertEquals(standardBoard.currentPlayer().getLegalMoves().size(), moves.size());
+                for (final Move move : standardBoard.currentPlayer().getLegalMoves()) {
+                        final int encodedMove = EncodedMove.encode(move);
+                        assertTrue(moves.contains(encodedMove));
+                        assertEquals(move, EncodedMove.decode(standardBoard, encodedMove));
+                }
+        }
+
+        @Test
+        public void testCapturesMatchLegalMoves() {
+                assertEquals(1576, countCaptures(new SearchBoard(Board.createStandardBoard()), 4));
+        }
+
+        @Test
+        public void testNullMovePassesTurn() {
+                final Board board = Board.createStandardBoard();
+                final Board passed = new Move.NullMove(board).execute();
+                assertEquals(board.currentPlayer().getOpponent().getAlliance(), passed.currentPlayer().getAlliance());
+
+                final SearchBoard searchBoard = new SearchBoard(board);
+                searchBoard.makeNullMove();
+                assertTrue(searchBoard.isAfterNullMove());
+                assertEquals(passed.getZobristKey(), searchBoard.getZobristKey());
+                searchBoard.unmakeNullMove();
+                assertEquals(board.getZobristKey(), searchBoard.getZobristKey());
+                assertEquals(board.currentPlayer().getAlliance(), searchBoard.getSideToMove());
+        }
+
+        private static long countCaptures(final SearchBoard board, final int depth) {
+                final MoveList moves = new MoveList();
+                final MoveList captures = new MoveList();
+                final int numMoves = board.generateLegalMoves(moves);
+                board.generateCaptures(captures);
+                int expectedCaptures = 0;
+                for (int i = 0; i < numMoves; i++) {
+                        final int move = moves.get(i);
+                        if (EncodedMove.isCapture(move) || EncodedMove.isPromotion(move)) {
+                                assertTrue(captures.contains(move));
+                                expectedCaptures++;
+                        }
+                }
+                assertEquals(expectedCaptures, captures.size());
+                if (depth == 1) {
+                        return captures.size();
+                }
+                long nodes = 0;
+                for (int i = 0; i < numMoves; i++) {
+                        board.makeMove(moves.get(i));
+                        nodes += countCaptures(board, depth - 1);
+                        board.unmakeMove();
+                }
+                return nodes;
+        }
+
+        // the piece placement field of a FEN string; kings, rooks and pawns on
+        // their starting squares have not moved, so castling is allowed
+        private static Board fromPlacement(final String placement, final Alliance sideToMove) {
+                final Board.Builder builder = new Board.Builder();
+                int square = 0;
+                for (final char c : placement.toCharArray()) {
+                        if (Character.isDigit(c)) {
+                                square += c - '0';
+                        } else if (c != '/') {
+                                final Alliance alliance = Character.isUpperCase(c) ? Alliance.WHITE : Alliance.BLACK;
+                                PieceType pieceType = null;
+                                for (final PieceType type : PieceType.values()) {
+                                        if (type.toString().charAt(0) == Character.toUpperCase(c)) {
+                                                pieceType = type;
+                                        }
+                                }
+                                builder.setPiece(PieceUtils.getPiece(pieceType, alliance, square,
+                                                isStartingSquare(pieceType, alliance, square)));
+                                square++;
+                        }
+                }
+                builder.setMoveMaker(sideToMove);
+                return builder.build();
+        }
+
+        private static boolean isStartingSquare(final PieceType pieceType, final Alliance alliance, final int square) {
+                final int backRank = alliance.isWhite() ? 56 : 0;
+                switch (pieceType) {
+                        case KING:
+                                return square == backRank + 4;
+                        case ROOK:
+                                return square == backRank || square == backRank + 7;
+                        case PAWN:
+                                return square / 8 == (alliance.isWhite() ? 6 : 1);
+                        default:
+                                return false;
+                }
+        }
+
+        private static long perft(final SearchBoard board, final int depth) {
+                if (depth == 0) {
+                        return 1;
+                }
+                final MoveList moves = new MoveList();
+                board.generateMoves(moves);
+                long nodes = 0;
+                for (int i = 0; i < moves.size(); i++) {
+                        if (board.makeMove(moves.get(i))) {
+                                nodes += perft(board, depth - 1);
+                                board.unmakeMove();
+                        }
+                }
+                return nodes;
+        }
+
+        private static long legalPerft(final SearchBoard board, final int depth) {
+                final MoveList moves = new MoveList();
+                final int numMoves = board.generateLegalMoves(moves);
+                if (depth == 1) {
+                        return numMoves;
+                }
+                long nodes = 0;
+                for (int i = 0; i < numMoves; i++) {
+                        assertTrue(board.makeMove(moves.get(i)));
+                        nodes += legalPerft(board, depth - 1);
+                        board.unmakeMove();
+                }
+                return nodes;
+        }
+
+}
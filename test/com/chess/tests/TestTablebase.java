@@ -0,0 +1,95 @@
+package com.chess.tests;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.PieceUtils;
+import com.chess.engine.player.AI.AlphaBeta;
+import com.chess.engine.tablebase.Endgame;
+import com.chess.engine.tablebase.Tablebase;
+import com.chess.engine.tablebase.TablebaseGenerator;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TestTablebase {
+
+        @Test
+        public void testEndgameNames() {
+                assertEquals("KQvK", Endgame.of("KQK").getName());
+                assertEquals("KRPvK", Endgame.of("KPRK").getName());
+                assertFalse(Endgame.of("KvKR").isCanonical());
+                assertEquals("KRvK", Endgame.of("KvKR").flip().getName());
+                assertTrue(Endgame.of("KBvK").isDrawnByMaterial());
+                assertEquals(2L << 18, Endgame.of("KPvK").getSize());
+        }
+
+        @Test
+        public void testQueenEnding() throws IOException {
+                final Path directory = Files.createTempDirectory("tablebase");
+                try {
+                        final Tablebase tablebase = new Tablebase(directory);
+                        assertEquals(Tablebase.UNKNOWN, tablebase.probe(new SearchBoard(
+                                        position(Alliance.WHITE, "b6", "h7", "a8", Alliance.WHITE))));
+                        try (TablebaseGenerator generator = new TablebaseGenerator(directory, 2)) {
+                                final List<TablebaseGenerator.GeneratedTable> tables = generator.generate(Endgame.of("KQvK"));
+                                assertEquals(1, tables.size());
+                                assertEquals("KQvK", tables.get(0).getEndgame().getName());
+                                assertEquals(20, tables.get(0).getLongestMatePlies());
+                                assertTrue(generator.generate(Endgame.of("KvKQ")).isEmpty());
+                        }
+                        // the table was missing when first probed
+                        tablebase.refresh();
+
+                        // Qa7 or Qb7 mates at once
+                        final Board whiteToMove = position(Alliance.WHITE, "b6", "h7", "a8", Alliance.WHITE);
+                        final int win = tablebase.probe(new SearchBoard(whiteToMove));
+                        assertTrue(Tablebase.isWin(win));
+                        assertEquals(1, Tablebase.getPlies(win));
+                        final int loss = tablebase.probe(new SearchBoard(position(Alliance.WHITE, "b6", "h7", "a8", Alliance.BLACK)));
+                        assertTrue(Tablebase.isLoss(loss));
+
+                        // the same positions with the colors swapped come from the same table
+                        final Board blackToMove = position(Alliance.BLACK, "b3", "h2", "a1", Alliance.BLACK);
+                        assertEquals(win, tablebase.probe(new SearchBoard(blackToMove)));
+
+                        assertEquals(Tablebase.UNKNOWN, tablebase.probe(new SearchBoard(Board.createStandardBoard())));
+
+                        final AlphaBeta search = new AlphaBeta(2);
+                        search.setTablebase(tablebase);
+                        final Move move = search.execute(whiteToMove);
+                        final Board after = whiteToMove.currentPlayer().makeMove(move).getTransitionBoard();
+                        assertTrue(after.currentPlayer().isInCheckMate());
+                        assertTrue(search.getSearchStats().getTablebaseHits() > 0);
+                } finally {
+                        try (Stream<Path> files = Files.list(directory)) {
+                                files.forEach(file -> file.toFile().delete());
+                        }
+                        Files.delete(directory);
+                }
+        }
+
+        // a king and queen of one side against a lone king
+        private static Board position(final Alliance strongSide,
+                                      final String king,
+                                      final String queen,
+                                      final String loneKing,
+                                      final Alliance sideToMove) {
+                final Board.Builder builder = new Board.Builder();
+                builder.setPiece(PieceUtils.getPiece(PieceType.KING, strongSide, BoardUtils.getCoordinateAtPosition(king), false));
+                builder.setPiece(PieceUtils.getPiece(PieceType.QUEEN, strongSide, BoardUtils.getCoordinateAtPosition(queen), false));
+                builder.setPiece(PieceUtils.getPiece(PieceType.KING, strongSide.getOpponent(),
+                                BoardUtils.getCoordinateAtPosition(loneKing), false));
+                builder.setMoveMaker(sideToMove);
+                return builder.build();
+        }
+}